@@ -1,45 +1,97 @@
 package org.linghu.mybackend.config;
 
+import org.bson.Document;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import java.util.List;
 
 @Configuration
 public class MongoConfig {
 
+    private static final String DISCUSSIONS = "discussions";
+    private static final String COMMENTS = "comments";
+    private static final String REACTIONS = "reactions";
+
+    /**
+     * 讨论列表可选的排序字段，与DiscussionServiceImpl.resolveSortField保持一致
+     */
+    private static final List<String> DISCUSSION_SORT_FIELDS =
+            List.of("lastActivityTime", "createTime", "likeCount", "commentCount", "viewCount");
+
     /**
-     * 创建MongoDB索引
-     * 为discussions和comments集合创建文本搜索索引
-     * 
-     * @param mongoTemplate MongoDB模板
-     * @return 索引初始化结果标识
+     * 声明MongoDB索引及需要校验的查询形状
+     * 列表查询按“等值条件、排序字段”的顺序建立复合索引，并只索引未删除的文档；
+     * 唯一索引在启动时同步创建，其余索引由MongoIndexManager在启动后于后台创建
+     *
+     * @return 索引声明
      */
     @Bean
-    public boolean mongoIndexes(MongoTemplate mongoTemplate) {
-        // 创建Discussion 文本索引
-        if (!mongoTemplate.indexOps("discussions").getIndexInfo().stream()
-                .anyMatch(index -> index.getName().equals("title_content_text"))) {
-
-            TextIndexDefinition textIndex = new TextIndexDefinition.TextIndexDefinitionBuilder()
-                    .onField("title", 10.0f)
-                    .onField("content", 5.0f)
-                    .withDefaultLanguage("none")
-                    .build();
-            mongoTemplate.indexOps("discussions").ensureIndex(textIndex);
-        }
+    public MongoIndexCatalog mongoIndexCatalog() {
+        MongoIndexCatalog catalog = new MongoIndexCatalog();
+
+        // 文本索引
+        catalog.textIndex(DISCUSSIONS, "title_content_text",
+                new Document("title", "text").append("content", "text"),
+                new Document("title", 10).append("content", 5));
+        catalog.textIndex(COMMENTS, "content_text", new Document("content", "text"), new Document("content", 1));
 
-        // 创建Comment 文本索引
-        if (!mongoTemplate.indexOps("comments").getIndexInfo().stream()
-                .anyMatch(index -> index.getName().equals("content_text"))) {
+        // 讨论列表：状态等值，置顶优先，再按所选字段和_id排序（_id用于游标分页）
+        Document approved = new Document("deleted", false).append("status", "APPROVED");
+        for (String field : DISCUSSION_SORT_FIELDS) {
+            catalog.partialIndex(DISCUSSIONS, "status_priority_" + field,
+                    new Document("status", 1).append("priority", -1).append(field, -1).append("_id", -1));
+            catalog.queryShape("discussions.status." + field, DISCUSSIONS, approved,
+                    new Document("priority", -1).append(field, -1).append("_id", -1));
+        }
+        // 按创建时间升序（最早发布在前）是唯一常用的升序排序
+        catalog.partialIndex(DISCUSSIONS, "status_priority_createTime_asc",
+                new Document("status", 1).append("priority", -1).append("createTime", 1).append("_id", 1));
+        catalog.queryShape("discussions.status.createTime.asc", DISCUSSIONS, approved,
+                new Document("priority", -1).append("createTime", 1).append("_id", 1));
 
-            TextIndexDefinition textIndex = new TextIndexDefinition.TextIndexDefinitionBuilder()
-                    .onField("content")
-                    .withDefaultLanguage("none")
-                    .build();
-            mongoTemplate.indexOps("comments").ensureIndex(textIndex);
+        // 讨论列表：按实验、作者、标签过滤，默认排序
+        Document defaultSort = new Document("priority", -1).append("lastActivityTime", -1).append("_id", -1);
+        for (String filterField : List.of("experimentId", "userId", "tags")) {
+            catalog.partialIndex(DISCUSSIONS, filterField + "_status_priority_lastActivityTime",
+                    new Document(filterField, 1).append("status", 1).append("priority", -1)
+                            .append("lastActivityTime", -1).append("_id", -1));
+            Object value = "tags".equals(filterField) ? new Document("$in", List.of("verify")) : "verify";
+            catalog.queryShape("discussions." + filterField, DISCUSSIONS,
+                    new Document(approved).append(filterField, value), defaultSort);
         }
 
-        return true; // 返回索引创建成功标志
+        // 评论：按讨论、父评论、根评论、作者查询，按创建时间排序
+        catalog.partialIndex(COMMENTS, "discussion_parent_createTime",
+                new Document("discussionId", 1).append("parentId", 1).append("createTime", 1));
+        catalog.queryShape("comments.root", COMMENTS,
+                new Document("discussionId", "verify").append("parentId", null).append("deleted", false),
+                new Document("createTime", 1));
+        catalog.partialIndex(COMMENTS, "discussion_createTime",
+                new Document("discussionId", 1).append("createTime", 1));
+        catalog.queryShape("comments.discussion", COMMENTS,
+                new Document("discussionId", "verify").append("deleted", false), new Document("createTime", 1));
+        catalog.partialIndex(COMMENTS, "parent_createTime",
+                new Document("parentId", 1).append("createTime", 1));
+        catalog.queryShape("comments.parent", COMMENTS,
+                new Document("parentId", "verify").append("deleted", false), new Document("createTime", 1));
+        catalog.partialIndex(COMMENTS, "root_createTime",
+                new Document("rootId", 1).append("createTime", 1));
+        catalog.queryShape("comments.root-thread", COMMENTS,
+                new Document("rootId", "verify").append("deleted", false), new Document("createTime", 1));
+        catalog.partialIndex(COMMENTS, "user_createTime",
+                new Document("userId", 1).append("createTime", -1));
+        catalog.queryShape("comments.user", COMMENTS,
+                new Document("userId", "verify").append("deleted", false), new Document("createTime", -1));
+
+        // 互动：每个用户对同一对象的同一类型只有一条，也用于按对象批量查询当前用户的互动
+        catalog.uniqueIndex(REACTIONS, "target_user_type",
+                new Document("targetId", 1).append("userId", 1).append("type", 1));
+        catalog.queryShape("reactions.user-targets", REACTIONS,
+                new Document("targetId", new Document("$in", List.of("verify-1", "verify-2")))
+                        .append("userId", "verify"),
+                new Document());
+
+        return catalog;
     }
 }
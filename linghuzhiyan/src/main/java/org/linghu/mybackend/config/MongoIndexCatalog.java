@@ -0,0 +1,87 @@
+package org.linghu.mybackend.config;
+
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MongoDB索引声明
+ * 集中描述各集合需要的索引，以及用于校验执行计划的查询形状
+ */
+public class MongoIndexCatalog {
+
+    /**
+     * 索引声明
+     *
+     * @param collection 集合名
+     * @param keys 索引键（1升序，-1降序，"text"全文）
+     * @param options 索引选项，名称必填
+     * @param required 是否为正确性所必需；必需索引在启动时同步创建，创建失败则启动失败
+     */
+    public record IndexSpec(String collection, Document keys, IndexOptions options, boolean required) {
+
+        public String name() {
+            return options.getName();
+        }
+    }
+
+    /**
+     * 查询形状，与仓库或服务中实际执行的过滤和排序保持一致；过滤值仅作占位
+     *
+     * @param name 形状名称，用于日志和健康详情
+     * @param collection 集合名
+     * @param filter 过滤条件
+     * @param sort 排序
+     */
+    public record QueryShape(String name, String collection, Document filter, Document sort) {
+    }
+
+    private final List<IndexSpec> indexes = new ArrayList<>();
+    private final List<QueryShape> queryShapes = new ArrayList<>();
+
+    /**
+     * 声明只包含未删除文档（deleted:false）的部分索引
+     */
+    public MongoIndexCatalog partialIndex(String collection, String name, Document keys) {
+        indexes.add(new IndexSpec(collection, keys, new IndexOptions().name(name)
+                .partialFilterExpression(new Document("deleted", false)), false));
+        return this;
+    }
+
+    /**
+     * 声明唯一索引
+     * 唯一索引用于保证写入的幂等性，标记为必需，在接收请求前创建
+     */
+    public MongoIndexCatalog uniqueIndex(String collection, String name, Document keys) {
+        indexes.add(new IndexSpec(collection, keys, new IndexOptions().name(name).unique(true), true));
+        return this;
+    }
+
+    /**
+     * 声明全文索引
+     */
+    public MongoIndexCatalog textIndex(String collection, String name, Document keys, Document weights) {
+        indexes.add(new IndexSpec(collection, keys, new IndexOptions().name(name)
+                .weights(weights).defaultLanguage("none"), false));
+        return this;
+    }
+
+    /**
+     * 声明需要校验执行计划的查询形状
+     */
+    public MongoIndexCatalog queryShape(String name, String collection, Document filter, Document sort) {
+        queryShapes.add(new QueryShape(name, collection, filter, sort));
+        return this;
+    }
+
+    public List<IndexSpec> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    public List<QueryShape> getQueryShapes() {
+        return Collections.unmodifiableList(queryShapes);
+    }
+}
@@ -0,0 +1,236 @@
+package org.linghu.mybackend.config;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.linghu.mybackend.config.MongoIndexCatalog.IndexSpec;
+import org.linghu.mybackend.config.MongoIndexCatalog.QueryShape;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * MongoDB索引管理器
+ * 必需索引（如保证幂等的唯一索引）在Bean初始化时同步创建，早于Web服务开始接收请求，创建失败则启动失败；
+ * 其余索引在应用就绪后于后台线程按MongoIndexCatalog创建，不阻塞启动；
+ * 创建完成后可对每个查询形状执行explain，发现全表扫描（COLLSCAN）或内存排序（SORT）时告警，
+ * 校验模式为fail时同时将健康检查置为DOWN
+ */
+@Slf4j
+@Component("mongoIndexes")
+public class MongoIndexManager implements HealthIndicator {
+
+    /**
+     * 执行计划校验模式
+     */
+    public enum VerifyMode {
+        OFF, WARN, FAIL
+    }
+
+    enum State {
+        PENDING, BUILDING, READY, FAILED
+    }
+
+    private static final Set<String> BAD_STAGES = Set.of("COLLSCAN", "SORT");
+    private static final List<String> CHILD_KEYS = List.of("queryPlan", "inputStage", "inputStages",
+            "outerStage", "innerStage", "thenStage", "elseStage");
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoIndexCatalog catalog;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mongo.index.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Value("${mongo.index.verify:WARN}")
+    private VerifyMode verifyMode;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mongo-index-manager");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile State state = State.PENDING;
+    private volatile Map<String, List<String>> violations = Map.of();
+    private volatile List<String> failedIndexes = List.of();
+
+    public MongoIndexManager(MongoTemplate mongoTemplate, MongoIndexCatalog catalog, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.catalog = catalog;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 同步创建必需索引；已存在的重复数据会使唯一索引创建失败，此时中止启动而不是带着无保证的写入运行
+     */
+    @PostConstruct
+    void ensureRequiredIndexes() {
+        for (IndexSpec spec : catalog.getIndexes()) {
+            if (!spec.required() || existingIndexNames(spec.collection()).contains(spec.name())) {
+                continue;
+            }
+            try {
+                mongoTemplate.getCollection(spec.collection()).createIndex(spec.keys(), spec.options());
+                log.info("已创建必需的MongoDB索引 {}.{}", spec.collection(), spec.name());
+            } catch (MongoException e) {
+                throw new IllegalStateException("创建必需的MongoDB索引 " + spec.collection() + "."
+                        + spec.name() + " 失败", e);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!buildOnStartup && verifyMode == VerifyMode.OFF) {
+            return;
+        }
+        executor.execute(() -> {
+            if (buildOnStartup) {
+                ensureIndexes();
+            }
+            if (verifyMode != VerifyMode.OFF) {
+                verifyPlans();
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 创建缺失的索引；同名索引已存在时跳过，定义冲突时记录告警而不覆盖
+     */
+    public void ensureIndexes() {
+        state = State.BUILDING;
+        List<String> failed = new ArrayList<>();
+        Map<String, Set<String>> existingByCollection = new LinkedHashMap<>();
+        for (IndexSpec spec : catalog.getIndexes()) {
+            Set<String> existing = existingByCollection.computeIfAbsent(spec.collection(), this::existingIndexNames);
+            if (existing.contains(spec.name())) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                mongoTemplate.getCollection(spec.collection()).createIndex(spec.keys(), spec.options());
+                existing.add(spec.name());
+                log.info("已创建MongoDB索引 {}.{}，耗时{}ms", spec.collection(), spec.name(),
+                        System.currentTimeMillis() - start);
+            } catch (MongoException e) {
+                failed.add(spec.collection() + "." + spec.name());
+                log.warn("创建MongoDB索引 {}.{} 失败: {}", spec.collection(), spec.name(), e.getMessage());
+            }
+        }
+        failedIndexes = List.copyOf(failed);
+        state = failed.isEmpty() ? State.READY : State.FAILED;
+    }
+
+    /**
+     * 对所有查询形状执行explain，返回存在问题的形状及其问题阶段
+     */
+    public Map<String, List<String>> verifyPlans() {
+        Counter counter = meterRegistry.counter("mongo.index.plan_violations");
+        Map<String, List<String>> found = new LinkedHashMap<>();
+        for (QueryShape shape : catalog.getQueryShapes()) {
+            try {
+                List<String> problems = findPlanProblems(explain(shape));
+                if (!problems.isEmpty()) {
+                    found.put(shape.name(), problems);
+                    counter.increment();
+                    if (verifyMode == VerifyMode.FAIL) {
+                        log.error("查询形状 {} 的执行计划包含 {}，filter={}，sort={}", shape.name(), problems,
+                                shape.filter().toJson(), shape.sort().toJson());
+                    } else {
+                        log.warn("查询形状 {} 的执行计划包含 {}，filter={}，sort={}", shape.name(), problems,
+                                shape.filter().toJson(), shape.sort().toJson());
+                    }
+                }
+            } catch (MongoException e) {
+                log.warn("查询形状 {} 执行explain失败: {}", shape.name(), e.getMessage());
+            }
+        }
+        violations = Map.copyOf(found);
+        return found;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = verifyMode == VerifyMode.FAIL && !violations.isEmpty()
+                ? Health.down() : Health.up();
+        builder.withDetail("state", state.name()).withDetail("verify", verifyMode.name());
+        if (!failedIndexes.isEmpty()) {
+            builder.withDetail("failedIndexes", failedIndexes);
+        }
+        if (!violations.isEmpty()) {
+            builder.withDetail("planViolations", violations);
+        }
+        return builder.build();
+    }
+
+    private Set<String> existingIndexNames(String collection) {
+        Set<String> names = new HashSet<>();
+        MongoCollection<Document> mongoCollection = mongoTemplate.getCollection(collection);
+        for (Document index : mongoCollection.listIndexes()) {
+            names.add(index.getString("name"));
+        }
+        return names;
+    }
+
+    private Document explain(QueryShape shape) {
+        Document find = new Document("find", shape.collection())
+                .append("filter", shape.filter())
+                .append("sort", shape.sort())
+                .append("limit", 20);
+        return mongoTemplate.getDb().runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    /**
+     * 遍历explain结果中的获胜计划，收集全表扫描与内存排序阶段
+     */
+    static List<String> findPlanProblems(Document explainResult) {
+        List<String> problems = new ArrayList<>();
+        Document queryPlanner = explainResult.get("queryPlanner", Document.class);
+        if (queryPlanner != null) {
+            collectBadStages(queryPlanner.get("winningPlan"), problems);
+        }
+        return problems;
+    }
+
+    private static void collectBadStages(Object node, List<String> problems) {
+        if (node instanceof List<?> list) {
+            list.forEach(child -> collectBadStages(child, problems));
+            return;
+        }
+        if (!(node instanceof Document stage)) {
+            return;
+        }
+        String name = stage.getString("stage");
+        if (name != null && BAD_STAGES.contains(name) && !problems.contains(name)) {
+            problems.add(name);
+        }
+        // 新版本的获胜计划将阶段树包在queryPlan中，这里统一按子节点键向下遍历
+        for (String key : CHILD_KEYS) {
+            collectBadStages(stage.get(key), problems);
+        }
+    }
+}
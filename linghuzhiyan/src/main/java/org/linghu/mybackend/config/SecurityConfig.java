@@ -1,8 +1,15 @@
 package org.linghu.mybackend.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.security.AdaptiveBCryptPasswordEncoder;
+import org.linghu.mybackend.security.BCryptCostCalibrator;
+import org.linghu.mybackend.security.BoundedPasswordEncoder;
 import org.linghu.mybackend.security.JwtAccessDeniedHandler;
 import org.linghu.mybackend.security.JwtAuthenticationEntryPoint;
 import org.linghu.mybackend.security.JwtRequestFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,7 +19,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,6 +26,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 /**
  * Spring Security配置类
  */
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -62,8 +69,35 @@ public class SecurityConfig {    private final JwtAuthenticationEntryPoint jwtAu
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * 密码编码器：BCrypt运算在专用有界线程池中执行，饱和时快速返回503；
+     * 队列容量未配置时取线程数的若干倍，并始终小于Tomcat工作线程数的一半，保证排队的哈希请求占不满Web线程；
+     * 工作因子未显式配置时按目标耗时在当前机器上校准
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${password.hash.threads:0}") int threads,
+                                           @Value("${password.hash.queue-capacity:0}") int queueCapacity,
+                                           @Value("${password.hash.queue-per-thread:4}") int queuePerThread,
+                                           @Value("${password.hash.timeout-ms:1000}") long timeoutMillis,
+                                           @Value("${server.tomcat.threads.max:200}") int webThreads,
+                                           @Value("${password.bcrypt.strength:0}") int strength,
+                                           @Value("${password.bcrypt.target-millis:80}") long targetMillis,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:14}") int maxStrength) {
+        int cost = strength > 0
+                ? strength
+                : BCryptCostCalibrator.calibrate(targetMillis, minStrength, maxStrength).strength();
+        Gauge.builder("password.bcrypt.strength", () -> cost).register(meterRegistry);
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int capacity = queueCapacity > 0 ? queueCapacity : poolSize * queuePerThread;
+        int maxCapacity = Math.max(1, webThreads / 2 - poolSize);
+        if (capacity > maxCapacity) {
+            log.warn("密码哈希队列容量{}过大，按Tomcat工作线程数{}调整为{}", capacity, webThreads, maxCapacity);
+            capacity = maxCapacity;
+        }
+        return new BoundedPasswordEncoder(new AdaptiveBCryptPasswordEncoder(cost, Math.min(cost, minStrength)), poolSize, capacity,
+                timeoutMillis, meterRegistry);
     }
 }
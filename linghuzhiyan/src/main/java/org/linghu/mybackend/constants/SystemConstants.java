@@ -27,6 +27,8 @@ public final class SystemConstants {
     // 分页默认值
     public static final int DEFAULT_PAGE_SIZE = 10;
     public static final int DEFAULT_PAGE_NUM = 1;
+    // 游标分页每页数量上限，超过时按上限返回
+    public static final int MAX_PAGE_SIZE = 100;
 
     private SystemConstants() {
         // 私有构造函数，防止实例化
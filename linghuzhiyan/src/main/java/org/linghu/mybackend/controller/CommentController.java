@@ -3,6 +3,7 @@ package org.linghu.mybackend.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.linghu.mybackend.domain.ReactionType;
 import org.linghu.mybackend.dto.CommentRequestDTO;
 import org.linghu.mybackend.dto.CommentResponseDTO;
 import org.linghu.mybackend.dto.ReportCommentDTO;
@@ -34,14 +35,16 @@ public class CommentController {
     }
     
     @GetMapping("/api/discussions/{discussionId}/comments")
-    @Operation(summary = "获取讨论的评论列表", description = "分页获取指定讨论的评论列表")
+    @Operation(summary = "获取讨论的评论列表", description = "分页获取指定讨论的评论列表；默认summary视图不含富文本，view=full返回完整内容，fields可指定返回字段")
     public ResponseEntity<Page<CommentResponseDTO>> getCommentsByDiscussionId(
             @PathVariable String discussionId,
             @RequestParam(required = false, defaultValue = "false") boolean rootOnly,
             @RequestParam(required = false, defaultValue = "createTime") String sortBy,
             @RequestParam(required = false, defaultValue = "asc") String order,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "summary") String view,
+            @RequestParam(required = false) String fields) {
         
         String currentUserId = null;
         try {
@@ -51,7 +54,7 @@ public class CommentController {
         }
         
         Page<CommentResponseDTO> comments = commentService.getCommentsByDiscussionId(
-                discussionId, rootOnly, sortBy, order, page, size, currentUserId);
+                discussionId, rootOnly, sortBy, order, page, size, view, fields, currentUserId);
         
         return ResponseEntity.ok(comments);
     }
@@ -61,7 +64,9 @@ public class CommentController {
     public ResponseEntity<Page<CommentResponseDTO>> getRepliesByCommentId(
             @PathVariable String commentId,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "summary") String view,
+            @RequestParam(required = false) String fields) {
         
         String currentUserId = null;
         try {
@@ -70,7 +75,8 @@ public class CommentController {
             // 未登录用户不影响浏览评论
         }
         
-        Page<CommentResponseDTO> replies = commentService.getRepliesByCommentId(commentId, page, size, currentUserId);
+        Page<CommentResponseDTO> replies = commentService.getRepliesByCommentId(
+                commentId, page, size, view, fields, currentUserId);
         return ResponseEntity.ok(replies);
     }
     
@@ -91,6 +97,15 @@ public class CommentController {
         return ResponseEntity.ok(comment);
     }
     
+    @PostMapping("/api/comments/{commentId}/reactions/{type}")
+    @Operation(summary = "添加/取消评论互动", description = "对评论添加或取消指定类型的互动(LIKE,HELPFUL,CONFUSED)")
+    public ResponseEntity<CommentResponseDTO> toggleReaction(@PathVariable String commentId,
+            @PathVariable ReactionType type) {
+        String userId = userService.getCurrentUserId();
+        CommentResponseDTO comment = commentService.toggleReaction(commentId, type, userId);
+        return ResponseEntity.ok(comment);
+    }
+    
     @GetMapping("/api/comments/{commentId}")
     @Operation(summary = "获取评论详情", description = "根据ID获取评论详情")
     public ResponseEntity<CommentResponseDTO> getCommentById(@PathVariable String commentId) {
@@ -7,6 +7,8 @@ import lombok.RequiredArgsConstructor;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.linghu.mybackend.domain.ReactionType;
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.DiscussionRequestDTO;
 import org.linghu.mybackend.dto.DiscussionResponseDTO;
 import org.linghu.mybackend.dto.PriorityRequestDTO;
@@ -37,7 +39,7 @@ public class DiscussionController {
     }
 
     @GetMapping
-    @Operation(summary = "获取讨论列表", description = "分页获取讨论列表，支持多种过滤和排序")
+    @Operation(summary = "获取讨论列表", description = "分页获取讨论列表，支持多种过滤和排序；默认summary视图不含正文，view=full返回完整内容，fields可指定返回字段")
     public ResponseEntity<Page<DiscussionResponseDTO>> getDiscussions(
             @RequestParam(required = false) String tags,
             @RequestParam(required = false) String experimentId,
@@ -47,7 +49,9 @@ public class DiscussionController {
             @RequestParam(required = false, defaultValue = "lastActivityTime") String sortBy,
             @RequestParam(required = false, defaultValue = "desc") String order,
             @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "10") int size) {
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "summary") String view,
+            @RequestParam(required = false) String fields) {
 
         String currentUserId = null;
         try {
@@ -59,7 +63,39 @@ public class DiscussionController {
         String[] tagArray = tags != null ? tags.split(",") : null;
 
         Page<DiscussionResponseDTO> discussions = discussionService.getDiscussions(
-                tagArray, experimentId, userId, status, keyword, sortBy, order, page, size, currentUserId);
+                tagArray, experimentId, userId, status, keyword, sortBy, order, page, size, view, fields, currentUserId);
+
+        return ResponseEntity.ok(discussions);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页获取讨论列表", description = "适用于无限滚动，使用上一页返回的nextCursor获取下一页，总数按需返回；view与fields同列表接口")
+    public ResponseEntity<CursorPageResult<DiscussionResponseDTO>> getDiscussionsByCursor(
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) String experimentId,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false, defaultValue = "lastActivityTime") String sortBy,
+            @RequestParam(required = false, defaultValue = "desc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false, defaultValue = "summary") String view,
+            @RequestParam(required = false) String fields) {
+
+        String currentUserId = null;
+        try {
+            currentUserId = userService.getCurrentUserId();
+        } catch (Exception e) {
+            // 未登录用户不影响浏览讨论
+        }
+
+        String[] tagArray = tags != null ? tags.split(",") : null;
+
+        CursorPageResult<DiscussionResponseDTO> discussions = discussionService.getDiscussionsByCursor(
+                tagArray, experimentId, userId, status, keyword, sortBy, order, cursor, size, includeTotal,
+                view, fields, currentUserId);
 
         return ResponseEntity.ok(discussions);
     }
@@ -132,4 +168,13 @@ public class DiscussionController {
         DiscussionResponseDTO discussion = discussionService.toggleLike(id, userId);
         return ResponseEntity.ok(discussion);
     }
+
+    @PostMapping("/{id}/reactions/{type}")
+    @Operation(summary = "添加/取消讨论互动", description = "对讨论添加或取消指定类型的互动(LIKE,HELPFUL,CONFUSED)")
+    public ResponseEntity<DiscussionResponseDTO> toggleReaction(@PathVariable String id,
+            @PathVariable ReactionType type) {
+        String userId = userService.getCurrentUserId();
+        DiscussionResponseDTO discussion = discussionService.toggleReaction(id, type, userId);
+        return ResponseEntity.ok(discussion);
+    }
 }
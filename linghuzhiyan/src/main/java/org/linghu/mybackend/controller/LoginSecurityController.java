@@ -0,0 +1,51 @@
+package org.linghu.mybackend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.linghu.mybackend.domain.LoginStatsRollup.Granularity;
+import org.linghu.mybackend.dto.LoginStatsDTO;
+import org.linghu.mybackend.dto.Result;
+import org.linghu.mybackend.service.LoginLogService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 登录安全监控API控制器
+ */
+@RestController
+@RequestMapping("/api/admin/login-security")
+@RequiredArgsConstructor
+@Tag(name = "登录安全监控", description = "可疑登录IP查询相关API")
+@PreAuthorize("hasAnyRole('ROLE_ADMIN')")
+public class LoginSecurityController {
+
+    private final LoginLogService loginLogService;
+
+    @GetMapping("/suspicious-ips")
+    @Operation(summary = "查询可疑IP", description = "返回最近一段时间内登录失败次数达到阈值的IP，按次数降序")
+    public Result<Map<String, Long>> getSuspiciousIps(@RequestParam(defaultValue = "10") int threshold,
+            @RequestParam(defaultValue = "15") int minutes) {
+        return Result.success(loginLogService.getSuspiciousLoginActivities(threshold, minutes));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "查询登录统计", description = "按小时或天返回各状态、设备、角色、失败原因的登录次数")
+    public Result<List<LoginStatsDTO>> getLoginStats(@RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return Result.success(loginLogService.getLoginStats(granularity, from, to));
+    }
+
+    @GetMapping("/ips/{ipAddress}/failures")
+    @Operation(summary = "查询IP失败次数", description = "估计指定IP最近一段时间内的登录失败次数")
+    public Result<Long> getIpFailures(@PathVariable String ipAddress,
+            @RequestParam(defaultValue = "15") int minutes) {
+        return Result.success(loginLogService.estimateIpFailures(ipAddress, minutes));
+    }
+}
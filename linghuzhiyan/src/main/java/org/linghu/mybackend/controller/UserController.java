@@ -4,19 +4,28 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.LoginRequestDTO;
 import org.linghu.mybackend.dto.LoginResponseDTO;
 import org.linghu.mybackend.dto.PageResult;
 import org.linghu.mybackend.dto.ProfileUpdateDTO;
 import org.linghu.mybackend.dto.Result;
 import org.linghu.mybackend.dto.UserDTO;
+import org.linghu.mybackend.dto.UserDirectoryEntryDTO;
+import org.linghu.mybackend.dto.UserImportResultDTO;
 import org.linghu.mybackend.dto.UserRegistrationDTO;
 import org.linghu.mybackend.service.UserService;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 /**
  * 用户API控制器
@@ -39,6 +48,23 @@ public class UserController {
         return Result.success(userDTO);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "批量导入用户", description = "上传CSV（表头含username、email、password，可选realName、school、major）或NDJSON名单，返回逐行导入结果")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_TEACHER')")
+    public Result<UserImportResultDTO> importUsers(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "STUDENT") String role) throws IOException {
+        String resolvedFormat = format;
+        if (resolvedFormat == null || resolvedFormat.isEmpty()) {
+            String filename = file.getOriginalFilename();
+            resolvedFormat = filename != null && (filename.endsWith(".ndjson") || filename.endsWith(".jsonl"))
+                    ? "ndjson" : "csv";
+        }
+        try (InputStream in = file.getInputStream()) {
+            return Result.success(userService.importUsers(in, resolvedFormat, role));
+        }
+    }
+
     @PostMapping("/login")
     @Operation(summary = "用户登录", description = "用户以指定身份登录并获取令牌，可选择指定角色进行身份验证")
     public Result<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequestDTO) {
@@ -46,6 +72,13 @@ public class UserController {
         return Result.success(response);
     }
 
+    @PostMapping("/logout")
+    @Operation(summary = "用户登出", description = "注销当前请求携带的令牌")
+    public Result<Void> logout(@RequestHeader("${jwt.tokenHeader}") String authorizationHeader) {
+        userService.logout(authorizationHeader);
+        return Result.success();
+    }
+
     @GetMapping("/profile")
     @Operation(summary = "获取个人资料", description = "获取当前登录用户的个人资料")
     public Result<UserDTO> getProfile(@AuthenticationPrincipal UserDetails userDetails) {
@@ -77,12 +110,46 @@ public class UserController {
         return Result.success(userDTO);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "搜索用户目录", description = "按用户名、邮箱或真实姓名前缀搜索，可按角色、学校、专业过滤并返回指定的个人资料字段；"
+            + "按用户名排序，使用上一页返回的nextCursor获取下一页")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_TEACHER','ROLE_ASSISTANT')")
+    public Result<CursorPageResult<UserDirectoryEntryDTO>> searchUsers(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String school,
+            @RequestParam(required = false) String major,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        return Result.success(userService.searchUsers(keyword, role, school, major, fields, cursor, pageSize));
+    }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "用户名自动补全", description = "返回以指定前缀开头的用户名")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_TEACHER','ROLE_ASSISTANT')")
+    public Result<List<String>> autocompleteUsernames(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return Result.success(userService.autocompleteUsernames(prefix, limit));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "游标分页查询用户", description = "按创建时间倒序分页，使用上一页返回的nextCursor获取下一页")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_TEACHER','ROLE_ASSISTANT')")
+    public Result<CursorPageResult<UserDTO>> listUsersByCursor(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "false") boolean includeProfile) {
+        return Result.success(userService.listUsersByCursor(cursor, pageSize, includeTotal, includeProfile));
+    }
+
     @GetMapping
     @Operation(summary = "分页查询用户", description = "分页查询用户列表")
     @PreAuthorize("hasAnyRole('ROLE_ADMIN','ROLE_TEACHER','ROLE_ASSISTANT')")
     public Result<PageResult<UserDTO>> listUsers(@RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize) {
-        Page<UserDTO> page = userService.listUsers(pageNum, pageSize);
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(defaultValue = "false") boolean includeProfile) {
+        Page<UserDTO> page = userService.listUsers(pageNum, pageSize, includeProfile);
 
         PageResult<UserDTO> pageResult = new PageResult<>();
         pageResult.setList(page.getContent());
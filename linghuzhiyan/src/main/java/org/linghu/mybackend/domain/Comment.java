@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -35,8 +36,8 @@ public class Comment {
     
     @Builder.Default
     private Integer likeCount = 0;
-    @Builder.Default
-    private List<String> likedBy = new ArrayList<>();
+    // 点赞以外的互动计数，键为ReactionType名称；互动记录保存在reactions集合
+    private Map<String, Long> reactionCounts;
     
     @Builder.Default
     private List<Attachment> attachments = new ArrayList<>();
@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -41,8 +42,8 @@ public class Discussion {
     private Long commentCount = 0L;
     @Builder.Default
     private Long likeCount = 0L;
-    @Builder.Default
-    private List<String> likedBy = new ArrayList<>();
+    // 点赞以外的互动计数，键为ReactionType名称；互动记录保存在reactions集合
+    private Map<String, Long> reactionCounts;
     
     private LocalDateTime lastCommentTime;
     private LocalDateTime lastActivityTime;
@@ -40,15 +40,32 @@ public class LoginLog {
     @Column(name = "status", nullable = false, length = 20)
     private String status;
 
-    @Column(name = "failure_reason", length = 255)
-    private String failureReason;
-
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // 字典编码后为空，读取时由字典ID还原
+    @Column(name = "failure_reason", length = 255)
+    private String failureReason;
+
+    // 字典编码后为空，读取时由字典ID还原
     @Column(name = "login_info", columnDefinition = "json")
     private String loginInfo;
 
+    @Column(name = "request_method", length = 10)
+    private String requestMethod;
+
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
+
+    @Column(name = "referer_id")
+    private Integer refererId;
+
+    @Column(name = "uri_id")
+    private Integer uriId;
+
+    @Column(name = "failure_reason_id")
+    private Integer failureReasonId;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -0,0 +1,42 @@
+package org.linghu.mybackend.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 登录日志字典项实体类
+ * 保存登录日志中大量重复的文本（User-Agent、Referer、URI、失败原因），日志行只引用其整数ID
+ */
+@Entity
+@Table(name = "login_log_dictionary", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_dictionary_kind_hash", columnNames = {"kind", "value_hash"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginLogDictionaryEntry {
+
+    /**
+     * 字典类别
+     */
+    public enum Kind {
+        USER_AGENT, REFERER, URI, FAILURE_REASON
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private Kind kind;
+
+    // 值的SHA-1摘要（十六进制），用于唯一约束，避免对长文本建索引
+    @Column(name = "value_hash", nullable = false, length = 40)
+    private String valueHash;
+
+    @Column(name = "value", nullable = false, columnDefinition = "text")
+    private String value;
+}
@@ -0,0 +1,13 @@
+package org.linghu.mybackend.domain;
+
+import java.util.Set;
+
+/**
+ * 登录快照：一次查询得到的用户及其角色ID
+ * 登录流程中的凭证校验、角色校验、令牌签发和响应构建都复用该快照
+ *
+ * @param user 用户
+ * @param roleIds 角色ID集合（不可变）
+ */
+public record LoginSnapshot(User user, Set<String> roleIds) {
+}
@@ -0,0 +1,61 @@
+package org.linghu.mybackend.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录统计汇总实体类
+ * 按小时/天汇总的登录次数，由内存中的分钟计数增量累加，仪表盘查询无需扫描login_logs
+ */
+@Entity
+@Table(name = "login_stats_rollup", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_bucket_dimensions",
+            columnNames = {"granularity", "bucket_start", "status", "device_type", "role", "failure_reason"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginStatsRollup {
+
+    /**
+     * 汇总粒度
+     */
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status;
+
+    // 设备大类（Desktop、Mobile等），不含系统与浏览器版本
+    @Column(name = "device_type", nullable = false, length = 20)
+    private String deviceType;
+
+    // 登录成功时用户的主要角色，失败时为"-"
+    @Column(name = "role", nullable = false, length = 20)
+    private String role;
+
+    // 失败原因类别（去掉冒号后的动态部分），成功时为"-"
+    @Column(name = "failure_reason", nullable = false, length = 64)
+    private String failureReason;
+
+    @Column(name = "count", nullable = false)
+    private Long count;
+}
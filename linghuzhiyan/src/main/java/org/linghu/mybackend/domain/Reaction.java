@@ -0,0 +1,39 @@
+package org.linghu.mybackend.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 互动记录
+ * 每个用户对同一对象的同一互动类型只有一条，由 (targetId, userId, type) 唯一索引保证
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reactions")
+public class Reaction {
+
+    /**
+     * 被互动对象类型
+     */
+    public enum TargetType {
+        DISCUSSION, COMMENT
+    }
+
+    @Id
+    private String id;
+
+    private TargetType targetType;
+    private String targetId;
+    private String userId;
+    private ReactionType type;
+
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,24 @@
+package org.linghu.mybackend.domain;
+
+/**
+ * 互动类型
+ * 点赞计数保存在likeCount（列表按其排序），其余类型计数保存在reactionCounts中
+ */
+public enum ReactionType {
+    LIKE("likeCount"),
+    HELPFUL(null),
+    CONFUSED(null);
+
+    private final String counterField;
+
+    ReactionType(String counterField) {
+        this.counterField = counterField;
+    }
+
+    /**
+     * 被互动对象上维护该类型计数的字段
+     */
+    public String counterField() {
+        return counterField != null ? counterField : "reactionCounts." + name();
+    }
+}
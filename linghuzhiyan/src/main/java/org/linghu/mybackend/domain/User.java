@@ -12,7 +12,12 @@ import java.util.Date;
  * 用户领域模型，对应数据库中的用户表
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_users_profile_school_major", columnList = "profile_school, profile_major"),
+    @Index(name = "idx_users_profile_major", columnList = "profile_major"),
+    @Index(name = "idx_users_profile_real_name", columnList = "profile_real_name")
+})
 @Data
 @Getter
 @NoArgsConstructor
@@ -39,6 +44,22 @@ public class User {
     @Column(columnDefinition = "json")
     private String profile;
 
+    // 由profile派生的虚拟生成列（只读），供按学校、专业、真实姓名筛选时走索引
+    @Column(name = "profile_school", length = 100, insertable = false, updatable = false,
+            columnDefinition = "varchar(100) GENERATED ALWAYS AS "
+                    + "(LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.school')), 100)) VIRTUAL")
+    private String profileSchool;
+
+    @Column(name = "profile_major", length = 100, insertable = false, updatable = false,
+            columnDefinition = "varchar(100) GENERATED ALWAYS AS "
+                    + "(LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.major')), 100)) VIRTUAL")
+    private String profileMajor;
+
+    @Column(name = "profile_real_name", length = 50, insertable = false, updatable = false,
+            columnDefinition = "varchar(50) GENERATED ALWAYS AS "
+                    + "(LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.realName')), 50)) VIRTUAL")
+    private String profileRealName;
+
     // //todo : fix get roles; now it is always null
     // @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     // private Set<UserRoleRelation> userRoles = new HashSet<>();
@@ -54,6 +75,10 @@ public class User {
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
 
+    // 令牌版本号，角色或账号变更时递增，使旧令牌失效
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = new Date();
@@ -12,7 +12,9 @@ import java.util.Date;
  * 根据新的数据库设计，移除了外键约束
  */
 @Entity
-@Table(name = "user_roles")
+@Table(name = "user_roles", indexes = {
+    @Index(name = "idx_user_roles_role_user", columnList = "role_id, user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,16 +1,19 @@
 package org.linghu.mybackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class CommentResponseDTO {
@@ -29,11 +32,13 @@ public class CommentResponseDTO {
     private String replyToUsername;
     private Integer likeCount;
     private Boolean isLiked;
+    private Map<String, Long> reactionCounts;
+    private Set<String> myReactions;
     private List<AttachmentDTO> attachments;
     private String status;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
     
-    @Builder.Default
-    private List<CommentResponseDTO> replies = new ArrayList<>();
+    // 只在按根评论分页时加载
+    private List<CommentResponseDTO> replies;
 }
@@ -1,5 +1,6 @@
 package org.linghu.mybackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,6 +8,7 @@ import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DiscussionResponseDTO {
@@ -26,6 +28,8 @@ public class DiscussionResponseDTO {
     private Long commentCount;
     private Long likeCount;
     private Boolean isLiked;
+    private java.util.Map<String, Long> reactionCounts;
+    private java.util.Set<String> myReactions;
     private java.time.LocalDateTime lastCommentTime;
     private java.time.LocalDateTime lastActivityTime;
     private java.util.List<AttachmentDTO> attachments;
@@ -0,0 +1,23 @@
+package org.linghu.mybackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 登录统计数据传输对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginStatsDTO {
+
+    private String bucketStart;
+    private String status;
+    private String deviceType;
+    private String role;
+    private String failureReason;
+    private Long count;
+}
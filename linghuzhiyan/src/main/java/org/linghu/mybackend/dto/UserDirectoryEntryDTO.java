@@ -0,0 +1,30 @@
+package org.linghu.mybackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户目录条目，只包含列表展示所需的字段
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDirectoryEntryDTO {
+
+    private String id;
+    private String username;
+    private String email;
+    private String avatar;
+    private Set<String> roles;
+
+    /**
+     * 按请求选取的个人资料字段（如school、major），未请求时为null
+     */
+    private Map<String, String> profile;
+}
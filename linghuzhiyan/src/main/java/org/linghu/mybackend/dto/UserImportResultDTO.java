@@ -0,0 +1,53 @@
+package org.linghu.mybackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量导入用户结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResultDTO {
+
+    /**
+     * 读取的数据行数（不含表头与空行）
+     */
+    private int total;
+
+    /**
+     * 成功导入的用户数
+     */
+    private int imported;
+
+    /**
+     * 失败的行数
+     */
+    private int failed;
+
+    /**
+     * 失败行明细（最多返回前若干条）
+     */
+    private List<RowError> errors;
+
+    /**
+     * 单行导入错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        /**
+         * 行号（从1开始，含表头）
+         */
+        private long line;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package org.linghu.mybackend.event;
+
+import lombok.Getter;
+
+/**
+ * 用户变更事件
+ * 在用户资料、角色或账号状态变更时发布，用于失效与该用户相关的缓存
+ */
+@Getter
+public class UserChangedEvent {
+
+    /**
+     * 变更的用户ID
+     */
+    private final String userId;
+
+    /**
+     * 变更发生时的用户名
+     */
+    private final String username;
+
+    public UserChangedEvent(String userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.linghu.mybackend.constants.SystemConstants;
 import org.linghu.mybackend.dto.Result;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -72,6 +73,17 @@ public class GlobalExceptionHandler {
     //     return Result.failure(e.getCode(), e.getMessage());
     // }
 
+    /**
+     * 处理服务繁忙异常，返回503并提示客户端稍后重试
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Result<Void>> handleServiceBusyException(ServiceBusyException e) {
+        log.warn("Service busy: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Result.failure(e.getCode(), e.getMessage()));
+    }
+
     /**
      * 处理业务异常
      */
@@ -0,0 +1,16 @@
+package org.linghu.mybackend.exception;
+
+import org.linghu.mybackend.constants.SystemConstants;
+
+/**
+ * 分页游标无效异常
+ * 游标被篡改、格式错误或与本次请求的排序方式不一致时抛出
+ */
+public class InvalidCursorException extends BaseException {
+
+    public static final int INVALID_CURSOR = SystemConstants.PARAMETER_ERROR_PREFIX + 1;
+
+    public InvalidCursorException() {
+        super(INVALID_CURSOR, "分页游标无效");
+    }
+}
@@ -0,0 +1,16 @@
+package org.linghu.mybackend.exception;
+
+import org.linghu.mybackend.constants.SystemConstants;
+
+/**
+ * 返回字段选择无效异常
+ * 请求的视图或fields参数中包含不存在的字段时抛出
+ */
+public class InvalidFieldsException extends BaseException {
+
+    public static final int INVALID_FIELDS = SystemConstants.PARAMETER_ERROR_PREFIX + 2;
+
+    public InvalidFieldsException(String message) {
+        super(INVALID_FIELDS, message);
+    }
+}
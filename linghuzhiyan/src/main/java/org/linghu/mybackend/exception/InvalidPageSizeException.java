@@ -0,0 +1,16 @@
+package org.linghu.mybackend.exception;
+
+import org.linghu.mybackend.constants.SystemConstants;
+
+/**
+ * 每页数量无效异常
+ * 分页请求的每页数量小于1时抛出
+ */
+public class InvalidPageSizeException extends BaseException {
+
+    public static final int INVALID_PAGE_SIZE = SystemConstants.PARAMETER_ERROR_PREFIX + 3;
+
+    public InvalidPageSizeException() {
+        super(INVALID_PAGE_SIZE, "每页数量必须大于0");
+    }
+}
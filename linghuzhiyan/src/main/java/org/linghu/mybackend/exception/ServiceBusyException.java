@@ -0,0 +1,20 @@
+package org.linghu.mybackend.exception;
+
+import org.linghu.mybackend.constants.SystemConstants;
+
+/**
+ * 服务繁忙异常
+ * 受限资源（如密码哈希线程池）已饱和时快速拒绝请求，由全局异常处理器转换为503响应
+ */
+public class ServiceBusyException extends BaseException {
+
+    public static final int SERVICE_BUSY = SystemConstants.SYSTEM_ERROR_PREFIX + 503;
+
+    public ServiceBusyException(String message) {
+        super(SERVICE_BUSY, message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(SERVICE_BUSY, message, cause);
+    }
+}
@@ -12,6 +12,10 @@ public class UserException extends BaseException {
     public static final int INVALID_CREDENTIALS = 100004;
     public static final int INVALID_OLD_PASSWORD = 100005;
     public static final int ROLE_NOT_AUTHORIZED = 100006;
+    public static final int ACCOUNT_LOCKED = 100007;
+    public static final int INVALID_CURSOR = 100008;
+    public static final int INVALID_IMPORT_REQUEST = 100009;
+    public static final int INVALID_PAGE_SIZE = 100010;
     
     public UserException(int code, String message) {
         super(code, message);
@@ -39,4 +43,20 @@ public class UserException extends BaseException {
     public static UserException roleNotAuthorized() {
         return new UserException(ROLE_NOT_AUTHORIZED, "您没有该身份的权限，请选择其他身份登录");
     }
+    
+    public static UserException accountLocked() {
+        return new UserException(ACCOUNT_LOCKED, "登录失败次数过多，请稍后再试");
+    }
+    
+    public static UserException invalidCursor() {
+        return new UserException(INVALID_CURSOR, "分页游标无效");
+    }
+    
+    public static UserException invalidImportRequest(String message) {
+        return new UserException(INVALID_IMPORT_REQUEST, message);
+    }
+    
+    public static UserException invalidPageSize() {
+        return new UserException(INVALID_PAGE_SIZE, "每页数量必须大于0");
+    }
 }
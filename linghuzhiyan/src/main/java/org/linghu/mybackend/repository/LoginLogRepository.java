@@ -57,6 +57,39 @@ public interface LoginLogRepository extends JpaRepository<LoginLog, Long> {
     @Query("SELECT COUNT(l) FROM LoginLog l WHERE l.userId = :userId AND l.status = 'FAILED' AND l.createdAt >= :timeAgo")
     long countRecentFailedAttempts(@Param("userId") String userId, @Param("timeAgo") LocalDateTime timeAgo);
     
+    /**
+     * 查询IP最近的失败登录尝试次数
+     * @param ipAddress IP地址
+     * @param timeAgo 起始时间
+     * @return 失败尝试次数
+     */
+    @Query("SELECT COUNT(l) FROM LoginLog l WHERE l.ipAddress = :ipAddress AND l.status = 'FAILED' AND l.createdAt >= :timeAgo")
+    long countRecentFailedAttemptsByIpAddress(@Param("ipAddress") String ipAddress, @Param("timeAgo") LocalDateTime timeAgo);
+    
+    /**
+     * 查询用户在指定时间段内的失败登录时间，用于重建内存中的失败计数窗口
+     * @param userId 用户ID
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 失败登录时间列表
+     */
+    @Query("SELECT l.createdAt FROM LoginLog l WHERE l.userId = :userId AND l.status = 'FAILED' AND l.createdAt >= :from AND l.createdAt < :to")
+    List<LocalDateTime> findFailedAttemptTimesByUserId(@Param("userId") String userId,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
+    
+    /**
+     * 查询IP在指定时间段内的失败登录时间，用于重建内存中的失败计数窗口
+     * @param ipAddress IP地址
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 失败登录时间列表
+     */
+    @Query("SELECT l.createdAt FROM LoginLog l WHERE l.ipAddress = :ipAddress AND l.status = 'FAILED' AND l.createdAt >= :from AND l.createdAt < :to")
+    List<LocalDateTime> findFailedAttemptTimesByIpAddress(@Param("ipAddress") String ipAddress,
+                                                          @Param("from") LocalDateTime from,
+                                                          @Param("to") LocalDateTime to);
+    
     /**
      * 按时间倒序查询用户的登录日志
      * @param userId 用户ID
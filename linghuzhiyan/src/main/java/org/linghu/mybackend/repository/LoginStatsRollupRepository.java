@@ -0,0 +1,26 @@
+package org.linghu.mybackend.repository;
+
+import org.linghu.mybackend.domain.LoginStatsRollup;
+import org.linghu.mybackend.domain.LoginStatsRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 登录统计汇总的数据访问层接口
+ */
+@Repository
+public interface LoginStatsRollupRepository extends JpaRepository<LoginStatsRollup, Long> {
+
+    /**
+     * 查询指定粒度、时间范围内的汇总记录
+     * @param granularity 汇总粒度
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 按时间升序的汇总记录
+     */
+    List<LoginStatsRollup> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            Granularity granularity, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,42 @@
+package org.linghu.mybackend.repository;
+
+import org.linghu.mybackend.domain.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 已注销令牌的数据访问层接口
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * 查询尚未过期的注销记录，用于启动时重建内存索引
+     * @param now 当前时间
+     * @return 未过期的注销记录
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * 查询指定时间之后新增且尚未过期的注销记录，用于多实例间同步
+     * @param revokedAt 上次同步时间
+     * @param now 当前时间
+     * @return 新增的注销记录
+     */
+    List<RevokedToken> findByRevokedAtAfterAndExpiresAtAfter(LocalDateTime revokedAt, LocalDateTime now);
+
+    /**
+     * 删除已过期的注销记录
+     * @param now 当前时间
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,9 +1,15 @@
 package org.linghu.mybackend.repository;
 
 import org.linghu.mybackend.domain.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -43,4 +49,115 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return 如果存在返回true，否则返回false
      */
     boolean existsByEmail(String email);
+    
+    /**
+     * 以一次连接查询加载用户及其全部角色ID，每个角色一行，无角色时角色ID为null
+     * 
+     * @param username 用户名
+     * @return [User, roleId] 行列表，用户不存在时为空
+     */
+    @Query("SELECT u, ur.id.roleId FROM User u LEFT JOIN UserRoleRelation ur ON ur.id.userId = u.id "
+            + "WHERE u.username = :username")
+    List<Object[]> findWithRoleIdsByUsername(@Param("username") String username);
+    
+    /**
+     * 游标分页第一页：按创建时间、ID倒序取前若干条，不执行COUNT
+     * 
+     * @param pageable 只使用其中的条数
+     * @return 用户列表
+     */
+    @Query("SELECT u FROM User u ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findFirstByCreatedAtDesc(Pageable pageable);
+    
+    /**
+     * 游标分页后续页：从上一页最后一条 (createdAt, id) 之后继续，走 (created_at, id) 索引
+     * 
+     * @param createdAt 上一页最后一条的创建时间
+     * @param id 上一页最后一条的ID
+     * @param pageable 只使用其中的条数
+     * @return 用户列表
+     */
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) "
+            + "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findAfterByCreatedAtDesc(@Param("createdAt") Date createdAt, @Param("id") String id,
+                                        Pageable pageable);
+    
+    /**
+     * 目录搜索的公共过滤条件：未删除、用户名在游标之后，可按学校、专业、角色筛选
+     */
+    String SEARCH_FILTERS = "u.is_deleted = false AND u.username > :after "
+            + "AND (:school IS NULL OR u.profile_school = :school) "
+            + "AND (:major IS NULL OR u.profile_major = :major) "
+            + "AND (:roleId IS NULL OR EXISTS (SELECT 1 FROM user_roles ur "
+            + "WHERE ur.user_id = u.id AND ur.role_id = :roleId)) ";
+    
+    /**
+     * 按用户名、邮箱或真实姓名前缀搜索未删除用户的ID，按用户名排序并从游标之后取若干条
+     * 三列各自使用自己的索引做前缀范围查询，结果以UNION合并，不使用跨列OR，也不统计总数
+     * 
+     * @param prefix 以!转义的LIKE前缀模式（以%结尾）
+     * @param after 上一页最后一个用户名，第一页为空字符串
+     * @param roleId 角色ID，为null时不过滤
+     * @param school 学校，为null时不过滤
+     * @param major 专业，为null时不过滤
+     * @param limit 最多返回的条数
+     * @return 按用户名升序的用户ID
+     */
+    @Query(value = "SELECT t.id FROM ("
+            + "(SELECT u.id, u.username FROM users u WHERE u.username LIKE :prefix ESCAPE '!' AND "
+            + SEARCH_FILTERS + "ORDER BY u.username LIMIT :limit) "
+            + "UNION (SELECT u.id, u.username FROM users u WHERE u.email LIKE :prefix ESCAPE '!' AND "
+            + SEARCH_FILTERS + "ORDER BY u.username LIMIT :limit) "
+            + "UNION (SELECT u.id, u.username FROM users u WHERE u.profile_real_name LIKE :prefix ESCAPE '!' AND "
+            + SEARCH_FILTERS + "ORDER BY u.username LIMIT :limit)"
+            + ") t ORDER BY t.username LIMIT :limit", nativeQuery = true)
+    List<String> searchIdsByPrefix(@Param("prefix") String prefix, @Param("after") String after,
+                                   @Param("roleId") String roleId, @Param("school") String school,
+                                   @Param("major") String major, @Param("limit") int limit);
+    
+    /**
+     * 不带关键词时按用户名索引顺序取游标之后的未删除用户ID
+     * 
+     * @param after 上一页最后一个用户名，第一页为空字符串
+     * @param roleId 角色ID，为null时不过滤
+     * @param school 学校，为null时不过滤
+     * @param major 专业，为null时不过滤
+     * @param limit 最多返回的条数
+     * @return 按用户名升序的用户ID
+     */
+    @Query(value = "SELECT u.id FROM users u WHERE " + SEARCH_FILTERS + "ORDER BY u.username LIMIT :limit",
+            nativeQuery = true)
+    List<String> searchIdsAfter(@Param("after") String after, @Param("roleId") String roleId,
+                                @Param("school") String school, @Param("major") String major,
+                                @Param("limit") int limit);
+    
+    /**
+     * 查询全部未删除用户的用户名，用于构建自动补全索引
+     * 
+     * @return 用户名列表
+     */
+    @Query("SELECT u.username FROM User u WHERE u.isDeleted = false")
+    List<String> findAllActiveUsernames();
+    
+    /**
+     * 查询未删除用户的令牌版本号
+     * 
+     * @param username 用户名
+     * @return 令牌版本号可选项，用户不存在或已删除时为空
+     */
+    @Query("SELECT COALESCE(u.tokenVersion, 0) FROM User u WHERE u.username = :username AND u.isDeleted = false")
+    Optional<Integer> findTokenVersionByUsername(@Param("username") String username);
+    
+    /**
+     * 仅当存储的密码哈希仍为旧值时替换为新哈希，不触碰其他字段
+     * 
+     * @param id 用户ID
+     * @param oldPassword 读取时的密码哈希
+     * @param newPassword 新的密码哈希
+     * @return 更新的行数，期间密码已被修改时为0
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("id") String id, @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
 }
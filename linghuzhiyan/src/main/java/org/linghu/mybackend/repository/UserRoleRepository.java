@@ -5,6 +5,7 @@ import org.linghu.mybackend.domain.UserRoleRelation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -22,6 +23,14 @@ public interface UserRoleRepository extends JpaRepository<UserRoleRelation, User
      */
     List<UserRoleRelation> findByIdUserId(String userId);
     
+    /**
+     * 根据用户ID集合批量查找用户角色关联
+     *
+     * @param userIds 用户ID集合
+     * @return 用户角色关联列表
+     */
+    List<UserRoleRelation> findByIdUserIdIn(Collection<String> userIds);
+    
     /**
      * 根据角色ID查找用户角色关联
      *
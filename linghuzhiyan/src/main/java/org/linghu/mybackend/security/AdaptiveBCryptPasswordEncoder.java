@@ -0,0 +1,45 @@
+package org.linghu.mybackend.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 按校准工作因子运行的BCrypt编码器
+ * 新哈希使用校准（或配置）的工作因子；只有存储的工作因子低于配置的下限时才要求重新哈希，
+ * 各节点校准结果不同（如11与12）时不会在登录中来回重新哈希
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int strength;
+    private final int minStrength;
+
+    /**
+     * @param strength 新哈希使用的工作因子
+     * @param minStrength 存储的工作因子低于该值时要求重新哈希
+     */
+    public AdaptiveBCryptPasswordEncoder(int strength, int minStrength) {
+        super(strength);
+        this.strength = strength;
+        this.minStrength = minStrength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(1)) < minStrength;
+    }
+}
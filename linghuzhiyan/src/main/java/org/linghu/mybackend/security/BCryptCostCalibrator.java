@@ -0,0 +1,77 @@
+package org.linghu.mybackend.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * BCrypt工作因子校准器
+ * 启动时在当前机器上测量各工作因子的单次哈希耗时（预热后取多次采样的中位数），
+ * 选择耗时不超过目标值的最大工作因子，并受上下限约束
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int SAMPLE_ROUNDS = 5;
+    private static final String SAMPLE_PASSWORD = "calibration-Pa55word!";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * 校准结果
+     *
+     * @param strength 选定的工作因子
+     * @param measuredMillis 各工作因子的中位耗时（毫秒）
+     */
+    public record Result(int strength, Map<Integer, Double> measuredMillis) {
+    }
+
+    /**
+     * 校准工作因子
+     *
+     * @param targetMillis 单次哈希的目标耗时（毫秒）
+     * @param minStrength 工作因子下限（安全底线，即使超过目标耗时也不低于此值）
+     * @param maxStrength 工作因子上限
+     * @return 校准结果
+     */
+    public static Result calibrate(long targetMillis, int minStrength, int maxStrength) {
+        Map<Integer, Double> measured = new LinkedHashMap<>();
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            double millis = measure(strength);
+            measured.put(strength, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+        }
+
+        final int selected = chosen;
+        StringBuilder report = new StringBuilder();
+        measured.forEach((strength, millis) ->
+                report.append(String.format("%n  cost=%2d  median=%8.2f ms%s", strength, millis,
+                        strength == selected ? "  <- selected" : "")));
+        log.info("BCrypt工作因子校准完成: target={} ms, selected cost={}{}", targetMillis, selected, report);
+        return new Result(selected, measured);
+    }
+
+    private static double measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+        }
+        long[] samples = new long[SAMPLE_ROUNDS];
+        for (int i = 0; i < SAMPLE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLE_ROUNDS / 2] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,144 @@
+package org.linghu.mybackend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.exception.ServiceBusyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界密码编码器
+ * 将BCrypt等CPU密集的哈希与校验放到固定大小的专用线程池中执行，队列有界；
+ * 队列已满、按当前队列深度估算的等待时间超过超时时间、或等待超时时抛出ServiceBusyException快速拒绝，
+ * 避免登录高峰占满Web工作线程的CPU，也避免Web工作线程在注定超时的排队上阻塞
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long timeoutMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate 实际执行哈希的编码器
+     * @param threads 哈希线程数，通常等于CPU核数
+     * @param queueCapacity 等待队列容量
+     * @param timeoutMillis 调用方最长等待时间（含排队），超时视为繁忙
+     * @param meterRegistry 指标注册中心
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMillis, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = meterRegistry.timer("password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("password.hash", "operation", "matches");
+        this.queueWaitTimer = meterRegistry.timer("password.hash.queue.wait");
+        this.rejectedCounter = meterRegistry.counter("password.hash.rejected");
+        Gauge.builder("password.hash.queue.size", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 关闭哈希线程池，由Spring在容器关闭时调用
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task, Timer timer) {
+        // 按队列深度和平均哈希耗时估算排队时间，等不到结果的请求直接拒绝，不占用调用线程
+        double estimatedWaitMillis = estimatedWaitMillis();
+        if (estimatedWaitMillis > timeoutMillis) {
+            rejectedCounter.increment();
+            log.warn("密码哈希预计等待{}ms，超过{}ms，拒绝请求: queued={}", (long) estimatedWaitMillis, timeoutMillis,
+                    executor.getQueue().size());
+            throw new ServiceBusyException("系统繁忙，请稍后再试");
+        }
+
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希队列已满，拒绝请求: queued={}", executor.getQueue().size());
+            throw new ServiceBusyException("系统繁忙，请稍后再试", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new ServiceBusyException("系统繁忙，请稍后再试", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("请求已中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private double estimatedWaitMillis() {
+        long count = encodeTimer.count() + matchesTimer.count();
+        if (count == 0) {
+            return 0;
+        }
+        double meanMillis = (encodeTimer.totalTime(TimeUnit.MILLISECONDS)
+                + matchesTimer.totalTime(TimeUnit.MILLISECONDS)) / count;
+        int waiting = executor.getQueue().size() + executor.getActiveCount();
+        return (double) waiting / threads * meanMillis;
+    }
+}
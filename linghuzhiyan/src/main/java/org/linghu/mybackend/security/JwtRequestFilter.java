@@ -7,11 +7,15 @@ import jakarta.servlet.http.HttpServletResponse;
 
 
 import org.linghu.mybackend.service.LoginLogService;
-import org.linghu.mybackend.utils.RequestUtils;
+import org.linghu.mybackend.service.TokenRevocationService;
+import org.linghu.mybackend.service.UserDomainService;
+import org.linghu.mybackend.utils.RequestMetadata;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,6 +24,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * JWT认证过滤器，用于验证请求中的JWT令牌
@@ -31,6 +39,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
     
     private final LoginLogService loginLogService;
 
+    private final UserDomainService userDomainService;
+
+    private final TokenRevocationService tokenRevocationService;
+
      // JWT 令牌请求头
     @Value("${jwt.tokenHeader}")
     private String tokenHeader;
@@ -39,11 +51,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
     @Value("${jwt.tokenHead}")
     private String tokenHead;
 
+    // 无状态认证模式：信任令牌中的角色声明，不再逐请求查询用户及角色
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
     @Autowired
-    public JwtRequestFilter(JwtTokenUtil jwtTokenUtil, UserDetailsServiceImpl userDetailsService, LoginLogService loginLogService) {
+    public JwtRequestFilter(JwtTokenUtil jwtTokenUtil, UserDetailsServiceImpl userDetailsService,
+                            LoginLogService loginLogService, UserDomainService userDomainService,
+                            TokenRevocationService tokenRevocationService) {
         this.jwtTokenUtil = jwtTokenUtil;
         this.userDetailsService = userDetailsService;
         this.loginLogService = loginLogService;
+        this.userDomainService = userDomainService;
+        this.tokenRevocationService = tokenRevocationService;
     }    @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain)
             throws ServletException, IOException {
@@ -51,26 +71,27 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
         final String authorizationHeader = request.getHeader(this.tokenHeader);
 
         String username = null;
-        String jwt = null;
-        String ipAddress = RequestUtils.getClientIpAddress(request);
-        String deviceType = RequestUtils.getDeviceType(request);
-        String loginInfo = RequestUtils.collectRequestInfo(request);
+        VerifiedToken verifiedToken = null;
+        // 请求元数据只在需要记录日志时才解析
+        RequestMetadata metadata = RequestMetadata.of(request);
 
         // 从请求头中提取JWT令牌
         if (authorizationHeader != null && authorizationHeader.startsWith(this.tokenHead)) {
-            jwt = authorizationHeader.substring(this.tokenHead.length());
+            String jwt = authorizationHeader.substring(this.tokenHead.length());
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwt);
+                // 只解析验签一次，后续校验复用该声明快照
+                verifiedToken = jwtTokenUtil.verifyToken(jwt);
+                username = verifiedToken.getSubject();
             } catch (Exception e) { // 令牌解析失败
                 logger.warn("无法解析JWT令牌", e);
                 // 记录令牌解析失败的日志
                 if (username != null) {
                     loginLogService.logFailedLogin(
                         username,
-                        ipAddress,
-                        deviceType,
+                        metadata.getIpAddress(),
+                        metadata.getDeviceType(),
                         "JWT令牌解析失败: " + e.getMessage(),
-                        loginInfo
+                        metadata.getLoginInfo()
                     );
                 }
             }
@@ -79,10 +100,36 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
         // 如果找到用户名且当前上下文中没有认证信息
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                // 已注销（登出）的令牌不再认证，布隆过滤器使绝大多数请求无需额外查询
+                if (verifiedToken.getId() != null && tokenRevocationService.isRevoked(verifiedToken.getId())) {
+                    loginLogService.logFailedLogin(
+                        username,
+                        metadata.getIpAddress(),
+                        metadata.getDeviceType(),
+                        "JWT令牌已注销",
+                        metadata.getLoginInfo()
+                    );
+                    chain.doFilter(request, response);
+                    return;
+                }
+
+                // 令牌携带版本号时，校验其与用户当前版本一致（角色变更、删除后旧令牌失效）
+                if (!isTokenVersionCurrent(verifiedToken)) {
+                    loginLogService.logFailedLogin(
+                        username,
+                        metadata.getIpAddress(),
+                        metadata.getDeviceType(),
+                        "JWT令牌版本已失效",
+                        metadata.getLoginInfo()
+                    );
+                    chain.doFilter(request, response);
+                    return;
+                }
+
+                UserDetails userDetails = resolveUserDetails(verifiedToken);
 
                 // 验证令牌是否有效
-                if (jwtTokenUtil.validateToken(jwt, userDetails)) {
+                if (jwtTokenUtil.validateToken(verifiedToken, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
 
@@ -98,19 +145,19 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
                     if (requestURI.contains("/api/auth/") && !requestURI.contains("/api/auth/login")) {
                         loginLogService.logSuccessfulLogin(
                             username,
-                            ipAddress,
-                            deviceType,
-                            loginInfo
+                            metadata.getIpAddress(),
+                            metadata.getDeviceType(),
+                            metadata.getLoginInfo()
                         );
                     }
                 } else {
                     // 记录令牌验证失败的日志
                     loginLogService.logFailedLogin(
                         username,
-                        ipAddress,
-                        deviceType,
+                        metadata.getIpAddress(),
+                        metadata.getDeviceType(),
                         "JWT令牌验证失败",
-                        loginInfo
+                        metadata.getLoginInfo()
                     );
                 }
             } catch (UsernameNotFoundException e) {
@@ -118,14 +165,49 @@ public class JwtRequestFilter extends OncePerRequestFilter {    private final Jw
                 // 记录用户名不存在的日志
                 loginLogService.logFailedLogin(
                     username,
-                    ipAddress,
-                    deviceType,
+                    metadata.getIpAddress(),
+                    metadata.getDeviceType(),
                     "用户名不存在: " + e.getMessage(),
-                    loginInfo
+                    metadata.getLoginInfo()
                 );
             }
         }
 
         chain.doFilter(request, response);
     }
+
+    /**
+     * 校验令牌版本号，未携带版本号的旧令牌视为有效
+     */
+    private boolean isTokenVersionCurrent(VerifiedToken verifiedToken) {
+        Integer tokenVersion = verifiedToken.getTokenVersion();
+        if (tokenVersion == null) {
+            return true;
+        }
+        Optional<Integer> currentVersion = userDomainService.getTokenVersion(verifiedToken.getSubject());
+        if (currentVersion.isEmpty()) {
+            throw new UsernameNotFoundException("用户不存在: " + verifiedToken.getSubject());
+        }
+        return currentVersion.get().equals(tokenVersion);
+    }
+
+    /**
+     * 获取用户详情：无状态模式下直接由令牌声明构建，否则从数据库加载
+     */
+    private UserDetails resolveUserDetails(VerifiedToken verifiedToken) {
+        List<String> roles = verifiedToken.getRoles();
+        if (!stateless || roles == null || verifiedToken.getTokenVersion() == null) {
+            return userDetailsService.loadUserByUsername(verifiedToken.getSubject());
+        }
+
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return org.springframework.security.core.userdetails.User.builder()
+                .username(verifiedToken.getSubject())
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
 }
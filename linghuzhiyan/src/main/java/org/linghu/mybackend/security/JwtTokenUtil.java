@@ -1,19 +1,30 @@
 package org.linghu.mybackend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.linghu.mybackend.utils.LruCache;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -24,11 +35,26 @@ import java.util.function.Function;
 @NoArgsConstructor
 public class JwtTokenUtil {
 
+    // 令牌中的角色声明
+    public static final String CLAIM_ROLES = "roles";
+
+    // 令牌中的用户令牌版本声明
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
+
+    // 已验证令牌缓存容量，小于等于0表示不缓存
+    @Value("${jwt.verified-cache-size:1024}")
+    private int verifiedCacheSize = 1024;
+
+    // 签名密钥与解析器只构建一次，密钥变更时重建
+    private volatile Key signingKey;
+    private volatile JwtParser jwtParser;
+    private volatile LruCache<String, VerifiedToken> verifiedTokens;
     
 //    // 添加setter方法以支持手动注入属性
 //    public void setSecret(String secret) {
@@ -39,26 +65,109 @@ public class JwtTokenUtil {
 //        this.expiration = expiration;
 //    }
 
+    public void setSecret(String secret) {
+        this.secret = secret;
+        this.signingKey = null;
+        this.jwtParser = null;
+        this.verifiedTokens = null;
+    }
+
     /**
-     * 生成JWT密钥
+     * 获取JWT密钥（惰性构建并复用）
      */
     private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        Key key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * 获取预构建的JWT解析器
+     */
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
+    private LruCache<String, VerifiedToken> getVerifiedTokens() {
+        LruCache<String, VerifiedToken> cache = verifiedTokens;
+        if (cache == null && verifiedCacheSize > 0) {
+            synchronized (this) {
+                cache = verifiedTokens;
+                if (cache == null) {
+                    cache = new LruCache<>(verifiedCacheSize);
+                    verifiedTokens = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 解析并验证令牌，返回不可变的声明快照
+     * 近期验证过且未过期的令牌直接命中缓存，跳过HMAC验签
+     *
+     * @param token JWT令牌
+     * @return 已验证的令牌声明
+     * @throws io.jsonwebtoken.JwtException 令牌无效或已过期
+     */
+    public VerifiedToken verifyToken(String token) {
+        LruCache<String, VerifiedToken> cache = getVerifiedTokens();
+        if (cache == null) {
+            return VerifiedToken.from(getAllClaimsFromToken(token));
+        }
+
+        String digest = digest(token);
+        VerifiedToken verified = cache.get(digest);
+        if (verified != null) {
+            if (!verified.isExpired(System.currentTimeMillis())) {
+                return verified;
+            }
+            cache.remove(digest);
+        }
+
+        // 未命中或已过期时完整解析，过期令牌在此抛出ExpiredJwtException
+        verified = VerifiedToken.from(getAllClaimsFromToken(token));
+        if (verified.getExpiration() != null) {
+            cache.put(digest, verified, verified.getExpiration().getTime());
+        }
+        return verified;
+    }
+
+    /**
+     * 计算令牌摘要作为缓存键，避免在内存中保留完整令牌
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
      * 从令牌中获取用户名
      */
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return verifyToken(token).getSubject();
     }
 
     /**
      * 从令牌中获取过期时间
      */
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return verifyToken(token).getExpiration();
     }
 
     /**
@@ -73,27 +182,45 @@ public class JwtTokenUtil {
      * 从令牌中获取所有声明
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     /**
-     * 检查令牌是否已过期
+     * 为指定用户生成令牌
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        return doGenerateToken(claims, userDetails.getUsername());
     }
 
     /**
-     * 为指定用户生成令牌
+     * 为指定用户生成携带角色与令牌版本的令牌，支持无状态认证
+     *
+     * @param userDetails 用户详情
+     * @param tokenVersion 用户当前的令牌版本号
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, Integer tokenVersion) {
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        return generateToken(userDetails.getUsername(), roles, tokenVersion);
+    }
+
+    /**
+     * 按用户名与角色ID直接生成令牌，无需构造UserDetails
+     *
+     * @param username 用户名
+     * @param roles 角色ID
+     * @param tokenVersion 用户当前的令牌版本号
+     */
+    public String generateToken(String username, Collection<String> roles, Integer tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
-        return doGenerateToken(claims, userDetails.getUsername());
+        claims.put(CLAIM_ROLES, new ArrayList<>(roles));
+        claims.put(CLAIM_TOKEN_VERSION, tokenVersion == null ? 0 : tokenVersion);
+        return doGenerateToken(claims, username);
     }
 
     /**
@@ -103,6 +230,7 @@ public class JwtTokenUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS512)
@@ -113,7 +241,15 @@ public class JwtTokenUtil {
      * 验证令牌是否有效
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verifyToken(token), userDetails);
+    }
+
+    /**
+     * 使用已验证的声明校验令牌是否属于指定用户且未过期
+     */
+    public Boolean validateToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return verifiedToken.getSubject() != null
+                && verifiedToken.getSubject().equals(userDetails.getUsername())
+                && !verifiedToken.isExpired(System.currentTimeMillis());
     }
 }
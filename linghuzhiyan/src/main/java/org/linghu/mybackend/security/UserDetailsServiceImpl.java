@@ -1,8 +1,14 @@
 package org.linghu.mybackend.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import org.linghu.mybackend.domain.User;
+import org.linghu.mybackend.event.UserChangedEvent;
 import org.linghu.mybackend.service.UserDomainService;
+import org.linghu.mybackend.utils.LruCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,12 +16,13 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.HashSet;
 import java.util.Set;
 /**
  * 自定义用户详情服务实现
- * 负责从数据库中加载用户信息及权限
+ * 负责从数据库中加载用户信息及权限，并缓存解析结果直到用户发生变更
  */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -23,9 +30,52 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserDomainService userDomainService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user.details-cache.size:10000}")
+    private int cacheSize;
+
+    @Value("${user.details-cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    private LruCache<String, UserDetails> userDetailsCache;
+
+    @PostConstruct
+    void initCache() {
+        userDetailsCache = new LruCache<>(cacheSize, cacheTtlSeconds * 1000);
+        userDetailsCache.bindTo(meterRegistry, "user.details");
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails cached = userDetailsCache.get(username);
+        if (cached == null) {
+            cached = doLoadUserByUsername(username);
+            userDetailsCache.put(username, cached);
+        }
+        // 返回副本：认证成功后Spring Security会擦除凭证，不能影响缓存中的对象
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    /**
+     * 用户变更时立即失效缓存
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        userDetailsCache.remove(event.getUsername());
+    }
+
+    /**
+     * 事务提交后再次失效，防止提交前的并发读取回填旧值
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChangedCommitted(UserChangedEvent event) {
+        userDetailsCache.remove(event.getUsername());
+    }
+
+    private UserDetails doLoadUserByUsername(String username) {
 
         User user = userDomainService.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
@@ -0,0 +1,116 @@
+package org.linghu.mybackend.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已验证签名的JWT令牌声明
+ * 一次解析后得到的不可变快照，可在过滤器及后续校验中复用，避免重复解析和验签
+ */
+public final class VerifiedToken {
+
+    private final String id;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Map<String, Object> claims;
+
+    private VerifiedToken(String id, String subject, Date issuedAt, Date expiration, Map<String, Object> claims) {
+        this.id = id;
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.claims = claims;
+    }
+
+    /**
+     * 从已验签的声明构建快照
+     */
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.getIssuedAt(),
+                claims.getExpiration(),
+                Collections.unmodifiableMap(new HashMap<>(claims)));
+    }
+
+    /**
+     * 令牌ID（jti），早期签发的令牌可能为null
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 令牌主体（用户名）
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * 签发时间
+     */
+    public Date getIssuedAt() {
+        return issuedAt == null ? null : new Date(issuedAt.getTime());
+    }
+
+    /**
+     * 过期时间
+     */
+    public Date getExpiration() {
+        return expiration == null ? null : new Date(expiration.getTime());
+    }
+
+    /**
+     * 获取指定声明
+     */
+    public Object getClaim(String name) {
+        return claims.get(name);
+    }
+
+    /**
+     * 令牌中携带的角色，未携带时返回null
+     */
+    public List<String> getRoles() {
+        Object roles = claims.get(JwtTokenUtil.CLAIM_ROLES);
+        if (!(roles instanceof Collection<?> collection)) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(collection.size());
+        for (Object role : collection) {
+            result.add(String.valueOf(role));
+        }
+        return result;
+    }
+
+    /**
+     * 令牌中携带的令牌版本号，未携带时返回null
+     */
+    public Integer getTokenVersion() {
+        Object version = claims.get(JwtTokenUtil.CLAIM_TOKEN_VERSION);
+        return version instanceof Number number ? number.intValue() : null;
+    }
+
+    /**
+     * 全部声明（只读）
+     */
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    /**
+     * 判断令牌在指定时间点是否已过期
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
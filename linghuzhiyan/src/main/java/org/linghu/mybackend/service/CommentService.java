@@ -1,6 +1,7 @@
 package org.linghu.mybackend.service;
 
 import org.linghu.mybackend.domain.Comment;
+import org.linghu.mybackend.domain.ReactionType;
 import org.linghu.mybackend.dto.CommentRequestDTO;
 import org.linghu.mybackend.dto.CommentResponseDTO;
 import org.linghu.mybackend.dto.ReportCommentDTO;
@@ -34,6 +35,8 @@ public interface CommentService {
      * @param order 排序方向(asc,desc)
      * @param page 页码(从0开始)
      * @param size 每页大小
+     * @param view 返回视图(summary不含富文本和点赞列表；full为完整内容)
+     * @param fields 逗号分隔的返回字段，非空时优先于view
      * @param currentUserId 当前用户ID(用于判断是否点赞)
      * @return 分页的评论列表
      */
@@ -44,6 +47,8 @@ public interface CommentService {
             String order, 
             int page, 
             int size,
+            String view,
+            String fields,
             String currentUserId);
       /**
      * 获取评论的回复列表
@@ -51,6 +56,8 @@ public interface CommentService {
      * @param commentId 评论ID
      * @param page 页码(从0开始)
      * @param size 每页大小
+     * @param view 返回视图(summary,full)
+     * @param fields 逗号分隔的返回字段，非空时优先于view
      * @param currentUserId 当前用户ID(用于判断是否点赞)
      * @return 分页的回复列表
      */
@@ -58,6 +65,8 @@ public interface CommentService {
             String commentId, 
             int page, 
             int size,
+            String view,
+            String fields,
             String currentUserId);
     
     /**
@@ -78,6 +87,16 @@ public interface CommentService {
      */
     CommentResponseDTO toggleLike(String commentId, String userId);
     
+    /**
+     * 添加/取消对评论的互动
+     * 
+     * @param commentId 评论ID
+     * @param type 互动类型
+     * @param userId 操作用户ID
+     * @return 更新后的评论对象
+     */
+    CommentResponseDTO toggleReaction(String commentId, ReactionType type, String userId);
+    
     /**
      * 根据ID获取评论详情
      * 
@@ -1,6 +1,8 @@
 package org.linghu.mybackend.service;
 
 import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.domain.ReactionType;
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.DiscussionRequestDTO;
 import org.linghu.mybackend.dto.DiscussionResponseDTO;
 import org.linghu.mybackend.dto.PriorityRequestDTO;
@@ -36,6 +38,8 @@ public interface DiscussionService {
      * @param order 排序方向(asc,desc)
      * @param page 页码(从0开始)
      * @param size 每页大小
+     * @param view 返回视图(summary不含正文、富文本和点赞列表；full为完整内容)
+     * @param fields 逗号分隔的返回字段，非空时优先于view
      * @param currentUserId 当前用户ID(用于判断是否点赞)
      * @return 分页的讨论列表
      */
@@ -48,7 +52,43 @@ public interface DiscussionService {
             String sortBy, 
             String order, 
             int page, 
-            int size,            String currentUserId);
+            int size,
+            String view,
+            String fields,
+            String currentUserId);
+    
+    /**
+     * 游标分页获取讨论列表，按 (priority, 排序字段, _id) 定位，每页一次范围查询
+     * 
+     * @param tags 标签过滤(数组)
+     * @param experimentId 实验ID过滤
+     * @param userId 用户ID过滤
+     * @param status 审核状态过滤(PENDING,APPROVED,REJECTED)
+     * @param keyword 关键词搜索
+     * @param sortBy 排序字段(createTime,lastActivityTime,likeCount,commentCount,viewCount)
+     * @param order 排序方向(asc,desc)
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param size 每页大小，须大于0，超过上限时按上限返回
+     * @param includeTotal 是否返回总数（按过滤条件短时缓存）
+     * @param view 返回视图(summary,full)
+     * @param fields 逗号分隔的返回字段，非空时优先于view
+     * @param currentUserId 当前用户ID(用于判断是否点赞)
+     * @return 游标分页的讨论列表
+     */
+    CursorPageResult<DiscussionResponseDTO> getDiscussionsByCursor(
+            String[] tags,
+            String experimentId,
+            String userId,
+            String status,
+            String keyword,
+            String sortBy,
+            String order,
+            String cursor,
+            int size,
+            boolean includeTotal,
+            String view,
+            String fields,
+            String currentUserId);
     
     /**
      * 根据ID获取讨论详情
@@ -108,8 +148,19 @@ public interface DiscussionService {
      */
     DiscussionResponseDTO toggleLike(String id, String userId);
     
+    /**
+     * 添加/取消对讨论的互动
+     * 
+     * @param id 讨论ID
+     * @param type 互动类型
+     * @param userId 操作用户ID
+     * @return 更新后的讨论对象
+     */
+    DiscussionResponseDTO toggleReaction(String id, ReactionType type, String userId);
+    
     /**
      * 增加讨论的浏览次数
+     * 浏览数先在内存中累计，定时批量写回
      * 
      * @param id 讨论ID
      */
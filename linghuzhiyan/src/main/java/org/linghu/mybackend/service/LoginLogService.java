@@ -1,6 +1,8 @@
 package org.linghu.mybackend.service;
 
 import org.linghu.mybackend.domain.LoginLog;
+import org.linghu.mybackend.domain.LoginStatsRollup.Granularity;
+import org.linghu.mybackend.dto.LoginStatsDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -19,7 +21,7 @@ public interface LoginLogService {
      * @param ipAddress 登录IP地址
      * @param deviceType 设备类型
      * @param loginInfo 额外的登录信息（JSON格式）
-     * @return 保存的登录日志记录
+     * @return 保存的登录日志记录（异步写入时不包含数据库ID）
      */
     LoginLog logSuccessfulLogin(String userId, String ipAddress, String deviceType, String loginInfo);
     
@@ -30,7 +32,7 @@ public interface LoginLogService {
      * @param deviceType 设备类型
      * @param failureReason 失败原因
      * @param loginInfo 额外的登录信息（JSON格式）
-     * @return 保存的登录日志记录
+     * @return 保存的登录日志记录（异步写入时不包含数据库ID）
      */
     LoginLog logFailedLogin(String userId, String ipAddress, String deviceType, String failureReason, String loginInfo);
     
@@ -58,18 +60,44 @@ public interface LoginLogService {
      */
     boolean isUserLocked(String userId, int lockThreshold, int minutes);
     
+    /**
+     * 检查IP是否被锁定（短时间内多次登录失败）
+     * @param ipAddress IP地址
+     * @param lockThreshold 锁定阈值（失败次数）
+     * @param minutes 检查的时间范围（分钟）
+     * @return 是否应该被锁定
+     */
+    boolean isIpLocked(String ipAddress, int lockThreshold, int minutes);
+    
     /**
      * 获取可疑的登录活动
      * @param threshold 失败阈值
      * @param minutes 检查的时间范围（分钟）
-     * @return IP地址和失败次数的映射
+     * @return IP地址和失败次数的映射（按次数降序，检测窗口内的次数为估计值）
      */
     Map<String, Long> getSuspiciousLoginActivities(int threshold, int minutes);
     
+    /**
+     * 估计IP在最近若干分钟内的登录失败次数
+     * @param ipAddress IP地址
+     * @param minutes 检查的时间范围（分钟）
+     * @return 失败次数估计值
+     */
+    long estimateIpFailures(String ipAddress, int minutes);
+    
     /**
      * 清理旧的登录日志
      * @param days 保留天数，超过这个天数的日志将被删除
      * @return 删除的记录数
      */
     long cleanupOldLogs(int days);
+    
+    /**
+     * 查询登录统计汇总（按时间桶、状态、设备大类、角色、失败原因类别分组的登录次数）
+     * @param granularity 汇总粒度（小时或天）
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 按时间升序的统计记录
+     */
+    List<LoginStatsDTO> getLoginStats(Granularity granularity, LocalDateTime from, LocalDateTime to);
 }
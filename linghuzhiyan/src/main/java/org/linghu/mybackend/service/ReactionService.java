@@ -0,0 +1,35 @@
+package org.linghu.mybackend.service;
+
+import org.linghu.mybackend.domain.Reaction.TargetType;
+import org.linghu.mybackend.domain.ReactionType;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 互动（点赞等）服务接口
+ */
+public interface ReactionService {
+
+    /**
+     * 切换用户对对象的互动：已存在则删除，不存在则插入
+     * 被互动对象上的计数由调用方按返回的变化量以$inc更新
+     *
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param userId 用户ID
+     * @param type 互动类型
+     * @return 计数变化量：1为新增，-1为取消，0为并发请求已完成同样的新增
+     */
+    int toggle(TargetType targetType, String targetId, String userId, ReactionType type);
+
+    /**
+     * 批量查询用户对一组对象的互动，一次查询
+     *
+     * @param targetIds 对象ID
+     * @param userId 用户ID，为null时返回空
+     * @return 对象ID到互动类型的映射，未互动的对象不包含在内
+     */
+    Map<String, Set<ReactionType>> findReactions(Collection<String> targetIds, String userId);
+}
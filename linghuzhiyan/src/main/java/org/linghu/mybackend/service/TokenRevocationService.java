@@ -0,0 +1,27 @@
+package org.linghu.mybackend.service;
+
+import java.util.Date;
+
+/**
+ * 令牌注销服务接口
+ * 维护在过期前被主动注销的JWT（按jti标识）
+ */
+public interface TokenRevocationService {
+
+    /**
+     * 注销令牌
+     *
+     * @param jti 令牌ID
+     * @param username 令牌所属用户名
+     * @param expiresAt 令牌过期时间，过期后注销记录可被清理
+     */
+    void revoke(String jti, String username, Date expiresAt);
+
+    /**
+     * 判断令牌是否已注销
+     *
+     * @param jti 令牌ID
+     * @return 是否已注销
+     */
+    boolean isRevoked(String jti);
+}
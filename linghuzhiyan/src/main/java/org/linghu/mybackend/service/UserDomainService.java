@@ -1,10 +1,14 @@
 package org.linghu.mybackend.service;
 
+import org.linghu.mybackend.domain.LoginSnapshot;
 import org.linghu.mybackend.domain.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -35,6 +39,14 @@ public interface UserDomainService {
      * @return 用户可选对象
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * 以一次查询加载登录所需的用户及角色快照，并回填角色缓存
+     *
+     * @param username 用户名
+     * @return 登录快照可选项
+     */
+    Optional<LoginSnapshot> findLoginSnapshot(String username);
       /**
      * 根据邮箱查找用户
      * 
@@ -81,13 +93,46 @@ public interface UserDomainService {
      * @param pageable 分页信息
      * @return 用户分页对象
      */
-    Page<User> findAll(Pageable pageable);    /**
-     * 根据角色ID查找用户
-     * 
-     * @param roleId 角色ID
+    Page<User> findAll(Pageable pageable);
+
+    /**
+     * 按创建时间倒序的游标分页查询
+     *
+     * @param afterCreatedAt 上一页最后一条的创建时间，第一页为null
+     * @param afterId 上一页最后一条的ID，第一页为null
+     * @param limit 最多返回条数
      * @return 用户列表
      */
-    List<User> findByRoleId(String roleId);
+    List<User> findPageAfter(Date afterCreatedAt, String afterId, int limit);
+
+    /**
+     * 用户总数，结果短时缓存
+     *
+     * @return 用户总数
+     */
+    long countUsers();
+
+    /**
+     * 按用户名、邮箱或真实姓名前缀搜索未删除用户，可按角色、学校、专业过滤；
+     * 按用户名升序从游标之后取若干条，不统计总数
+     *
+     * @param prefix 用户名、邮箱或真实姓名前缀，为空时匹配全部
+     * @param roleId 角色ID，为空时不过滤
+     * @param school 学校，为空时不过滤
+     * @param major 专业，为空时不过滤
+     * @param afterUsername 上一页最后一个用户名，第一页为null
+     * @param limit 最多返回的条数
+     * @return 按用户名升序的用户列表
+     */
+    List<User> searchUsers(String prefix, String roleId, String school, String major, String afterUsername,
+                           int limit);
+
+    /**
+     * 获取全部未删除用户的用户名
+     *
+     * @return 用户名列表
+     */
+    List<String> findAllActiveUsernames();
       /**
      * 给用户分配角色
      * 
@@ -111,4 +156,37 @@ public interface UserDomainService {
      * @return 角色ID集合
      */
     Set<String> getUserRoleIds(String userId);
+
+    /**
+     * 批量获取用户角色，缓存未命中的用户以一次IN查询加载
+     *
+     * @param userIds 用户ID集合
+     * @return 用户ID到角色ID集合的映射，没有角色的用户对应空集合
+     */
+    Map<String, Set<String>> getUserRoleIds(Collection<String> userIds);
+      /**
+     * 获取用户当前的令牌版本号（带缓存）
+     * 
+     * @param username 用户名
+     * @return 令牌版本号，用户不存在或已删除时为空
+     */
+    Optional<Integer> getTokenVersion(String username);
+      /**
+     * 递增用户的令牌版本号，使已签发的令牌失效
+     * 
+     * @param userId 用户ID
+     * @return 递增后的版本号
+     */
+    int incrementTokenVersion(String userId);
+    
+    /**
+     * 以新哈希替换密码哈希，仅当存储值仍为旧哈希时生效；用于登录时按新工作因子重新哈希，
+     * 不整体保存用户，避免覆盖并发的改密、资料或令牌版本修改
+     * 
+     * @param userId 用户ID
+     * @param oldPasswordHash 读取时的密码哈希
+     * @param newPasswordHash 新的密码哈希
+     * @return 是否已替换
+     */
+    boolean rehashPassword(String userId, String oldPasswordHash, String newPasswordHash);
 }
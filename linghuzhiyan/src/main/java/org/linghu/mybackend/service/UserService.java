@@ -1,12 +1,19 @@
 package org.linghu.mybackend.service;
 
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.LoginRequestDTO;
 import org.linghu.mybackend.dto.LoginResponseDTO;
 import org.linghu.mybackend.dto.ProfileUpdateDTO;
 import org.linghu.mybackend.dto.UserDTO;
+import org.linghu.mybackend.dto.UserDirectoryEntryDTO;
+import org.linghu.mybackend.dto.UserImportResultDTO;
 import org.linghu.mybackend.dto.UserRegistrationDTO;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 /**
  * 用户服务接口
  * 定义与用户相关的业务操作
@@ -29,6 +36,13 @@ public interface UserService {
      */
     LoginResponseDTO login(LoginRequestDTO loginRequestDTO);
     
+    /**
+     * 用户登出，注销当前令牌
+     * 
+     * @param authorizationHeader 请求头中的令牌（含前缀）
+     */
+    void logout(String authorizationHeader);
+    
     /**
      * 根据ID获取用户
      * 
@@ -71,6 +85,62 @@ public interface UserService {
      */
     Page<UserDTO> listUsers(int pageNum, int pageSize);
     
+    /**
+     * 分页查询用户，整页用户的角色一次查询加载
+     * 
+     * @param pageNum 页码
+     * @param pageSize 每页大小
+     * @param includeProfile 是否解析并返回个人资料
+     * @return 用户分页列表
+     */
+    Page<UserDTO> listUsers(int pageNum, int pageSize, boolean includeProfile);
+    
+    /**
+     * 按创建时间倒序的游标分页查询用户，页面耗时与翻页深度无关
+     * 
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param pageSize 每页大小，须大于0，超过上限时按上限返回
+     * @param includeTotal 是否返回用户总数（短时缓存）
+     * @param includeProfile 是否解析并返回个人资料
+     * @return 游标分页结果
+     */
+    CursorPageResult<UserDTO> listUsersByCursor(String cursor, int pageSize, boolean includeTotal,
+                                                boolean includeProfile);
+    
+    /**
+     * 用户目录搜索：按用户名、邮箱或真实姓名前缀匹配，可按角色、学校、专业过滤
+     * 
+     * @param keyword 用户名、邮箱或真实姓名前缀，为空时匹配全部
+     * @param role 角色（可省略ROLE_前缀），为空时不过滤
+     * @param school 学校，为空时不过滤
+     * @param major 专业，为空时不过滤
+     * @param profileFields 需要返回的个人资料字段（如school、major）
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param pageSize 每页大小，须大于0，超过上限时按上限返回
+     * @return 按用户名排序的游标分页结果，不含总数
+     */
+    CursorPageResult<UserDirectoryEntryDTO> searchUsers(String keyword, String role, String school, String major,
+                                                        List<String> profileFields, String cursor, int pageSize);
+    
+    /**
+     * 从CSV或NDJSON名单批量导入用户，逐行流式读取，逐行报告错误
+     * 
+     * @param in 名单输入流（UTF-8）
+     * @param format 名单格式：csv或ndjson
+     * @param role 分配给所有导入用户的角色（可省略ROLE_前缀），不允许管理员角色
+     * @return 导入结果
+     */
+    UserImportResultDTO importUsers(InputStream in, String format, String role) throws IOException;
+    
+    /**
+     * 用户名自动补全
+     * 
+     * @param prefix 用户名前缀
+     * @param limit 最多返回条数
+     * @return 匹配的用户名
+     */
+    List<String> autocompleteUsernames(String prefix, int limit);
+    
     /**
      * 更新用户资料
      * 
@@ -1,9 +1,13 @@
 package org.linghu.mybackend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.linghu.mybackend.domain.Attachment;
 import org.linghu.mybackend.domain.Comment;
 import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.domain.Reaction;
+import org.linghu.mybackend.domain.ReactionType;
 import org.linghu.mybackend.domain.RichContent;
 import org.linghu.mybackend.dto.AttachmentDTO;
 import org.linghu.mybackend.dto.CommentRequestDTO;
@@ -16,16 +20,25 @@ import org.linghu.mybackend.exception.UnauthorizedException;
 import org.linghu.mybackend.repository.CommentRepository;
 import org.linghu.mybackend.repository.DiscussionRepository;
 import org.linghu.mybackend.service.CommentService;
+import org.linghu.mybackend.service.ReactionService;
 import org.linghu.mybackend.service.UserService;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,19 +46,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CommentServiceImpl implements CommentService {
     
+    // 列表返回字段：summary视图保留纯文本内容，不读取富文本
+    private static final ResponseProjection LIST_PROJECTION = new ResponseProjection(
+            Set.of("id", "discussionId", "content", "richContent", "userId", "username", "userAvatar",
+                    "parentId", "rootId", "path", "depth", "replyToUserId", "replyToUsername", "likeCount",
+                    "isLiked", "reactionCounts", "myReactions", "attachments", "status", "createTime", "updateTime"),
+            List.of("richContent"));
+
     private final CommentRepository commentRepository;
     private final DiscussionRepository discussionRepository;
     private final UserService userService;
+    private final ReactionService reactionService;
+    private final MongoTemplate mongoTemplate;
     
     @Override
     public CommentResponseDTO createComment(String discussionId, CommentRequestDTO requestDTO, String userId) {        // 检查discussion是否存在
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(discussionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + discussionId));
+        Query discussionTarget = Query.query(Criteria.where("_id").is(discussionId).and("deleted").is(false));
+        if (!mongoTemplate.exists(discussionTarget, Discussion.class)) {
+            throw new ResourceNotFoundException("Discussion not found with id: " + discussionId);
+        }
         
         UserDTO userInfo = userService.getUserInfo(userId);
         
         // 创建评论实体
         Comment comment = Comment.builder()
+                .id(new ObjectId().toHexString())
                 .discussionId(discussionId)
                 .content(requestDTO.getContent())
                 .richContent(RichContent.builder()
@@ -57,7 +82,6 @@ public class CommentServiceImpl implements CommentService {
                 .userAvatar(userInfo.getAvatar())
                 .parentId(requestDTO.getParentId())
                 .likeCount(0)
-                .likedBy(new ArrayList<>())
                 .attachments(mapAttachmentDTOsToAttachments(requestDTO.getAttachments()))
                 .status("VISIBLE")
                 .deleted(false)
@@ -88,26 +112,21 @@ public class CommentServiceImpl implements CommentService {
                 comment.setDepth(1);
             }
         } else {
-            // 根评论
+            // 根评论，ID已预先生成，path直接设为自己的ID
             comment.setDepth(0);
-            // path将在保存后设置
+            comment.setPath(comment.getId());
         }
         
-        Comment savedComment = commentRepository.save(comment);
-        
-        // 如果是根评论，设置path为自己的ID
-        if (comment.getDepth() == 0) {
-            savedComment.setPath(savedComment.getId());
-            savedComment = commentRepository.save(savedComment);
-        }
+        Comment savedComment = mongoTemplate.insert(comment);
         
-        // 更新discussion的评论计数和最后评论时间
-        discussion.setCommentCount(discussion.getCommentCount() + 1);
-        discussion.setLastCommentTime(LocalDateTime.now());
-        discussion.setLastActivityTime(LocalDateTime.now());
-        discussionRepository.save(discussion);
+        // 更新discussion的评论计数和最后评论时间，只$inc/$set相关字段，不覆盖其他计数
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(discussionTarget, new Update()
+                .inc("commentCount", 1)
+                .set("lastCommentTime", now)
+                .set("lastActivityTime", now), Discussion.class);
         
-        return mapCommentToResponseDTO(savedComment, userId);
+        return mapCommentToResponseDTO(savedComment, Map.of());
     }
     
     @Override
@@ -118,6 +137,8 @@ public class CommentServiceImpl implements CommentService {
             String order, 
             int page, 
             int size,
+            String view,
+            String fields,
             String currentUserId) {
         
         // 验证discussion存在
@@ -126,26 +147,43 @@ public class CommentServiceImpl implements CommentService {
         
         Sort sort = createSort(sortBy, order);
         Pageable pageable = PageRequest.of(page, size, sort);
+        Document projection = LIST_PROJECTION.build(view, fields, List.of());
+        Set<String> selected = ResponseProjection.selected(fields);
         
+        Query query = new Query(Criteria.where("discussionId").is(discussionId).and("deleted").is(false));
         Page<Comment> comments;
         if (rootOnly) {
             // 只获取根评论
-            comments = commentRepository.findRootCommentsByDiscussionId(discussionId, pageable);
+            query.addCriteria(Criteria.where("parentId").is(null));
+            comments = findPage(query, pageable, projection);
+            List<String> rootIds = comments.getContent().stream().map(Comment::getId).collect(Collectors.toList());
+            
+            // 本页所有根评论的回复一次查询，按根评论分组；稀疏字段下也必须读取rootId用于分组
+            Query repliesQuery = ResponseProjection.apply(
+                    new Query(Criteria.where("rootId").in(rootIds).and("deleted").is(false)),
+                    LIST_PROJECTION.build(view, fields, List.of("rootId")))
+                    .with(Sort.by("createTime").ascending());
+            Map<String, List<Comment>> repliesByRoot = mongoTemplate.find(repliesQuery, Comment.class).stream()
+                    .filter(reply -> !reply.getId().equals(reply.getRootId())) // 排除自身
+                    .collect(Collectors.groupingBy(Comment::getRootId));
+            
+            // 当前用户对根评论和回复的互动一次查询
+            List<String> ids = new ArrayList<>(rootIds);
+            repliesByRoot.values().forEach(replies -> replies.forEach(reply -> ids.add(reply.getId())));
+            Map<String, Set<ReactionType>> reactions = reactionService.findReactions(ids, currentUserId);
             
             // 转换为DTO并加载回复
             return comments.map(comment -> {
-                CommentResponseDTO dto = mapCommentToResponseDTO(comment, currentUserId);
-                List<Comment> replies = commentRepository.findByRootId(comment.getId());
-                dto.setReplies(replies.stream()
-                        .filter(reply -> !reply.getId().equals(comment.getId())) // 排除自身
-                        .map(reply -> mapCommentToResponseDTO(reply, currentUserId))
+                CommentResponseDTO dto = mapCommentToResponseDTO(comment, reactions, selected);
+                dto.setReplies(repliesByRoot.getOrDefault(comment.getId(), List.of()).stream()
+                        .map(reply -> mapCommentToResponseDTO(reply, reactions, selected))
                         .collect(Collectors.toList()));
                 return dto;
             });
         } else {
             // 获取所有评论
-            comments = commentRepository.findByDiscussionId(discussionId, pageable);
-            return comments.map(comment -> mapCommentToResponseDTO(comment, currentUserId));
+            comments = findPage(query, pageable, projection);
+            return mapComments(comments, currentUserId, selected);
         }
     }
     
@@ -154,16 +192,35 @@ public class CommentServiceImpl implements CommentService {
             String commentId, 
             int page, 
             int size,
+            String view,
+            String fields,
             String currentUserId) {
         
         // 验证评论存在
-        Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
+        commentRepository.findByIdAndNotDeleted(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + commentId));
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createTime").ascending());
-        Page<Comment> replies = commentRepository.findByParentId(commentId, pageable);
+        Query query = new Query(Criteria.where("parentId").is(commentId).and("deleted").is(false));
+        Page<Comment> replies = findPage(query, pageable,
+                LIST_PROJECTION.build(view, fields, List.of()));
         
-        return replies.map(reply -> mapCommentToResponseDTO(reply, currentUserId));
+        return mapComments(replies, currentUserId, ResponseProjection.selected(fields));
+    }
+    
+    private Page<CommentResponseDTO> mapComments(Page<Comment> comments, String currentUserId, Set<String> selected) {
+        Map<String, Set<ReactionType>> reactions = reactionService.findReactions(
+                comments.getContent().stream().map(Comment::getId).collect(Collectors.toList()), currentUserId);
+        return comments.map(comment -> mapCommentToResponseDTO(comment, reactions, selected));
+    }
+    
+    /**
+     * 按投影分页查询评论，总数使用不带投影的过滤条件统计
+     */
+    private Page<Comment> findPage(Query filter, Pageable pageable, Document projection) {
+        long total = mongoTemplate.count(filter, Comment.class);
+        Query pageQuery = ResponseProjection.apply(filter, projection).with(pageable);
+        return new PageImpl<>(mongoTemplate.find(pageQuery, Comment.class), pageable, total);
     }
     
     @Override
@@ -177,40 +234,42 @@ public class CommentServiceImpl implements CommentService {
         }
         
         // 软删除
-        comment.setDeleted(true);
-        comment.setUpdateTime(LocalDateTime.now());
-        commentRepository.save(comment);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(commentId)),
+                new Update().set("deleted", true).set("updateTime", LocalDateTime.now()), Comment.class);
         
         // 更新discussion的评论计数
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(comment.getDiscussionId())
-                .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + comment.getDiscussionId()));
-        
+        Query discussionTarget = Query.query(
+                Criteria.where("_id").is(comment.getDiscussionId()).and("deleted").is(false));
         long commentCount = commentRepository.countByDiscussionIdAndDeletedFalse(comment.getDiscussionId());
-        discussion.setCommentCount(commentCount);
-        discussionRepository.save(discussion);
+        if (mongoTemplate.updateFirst(discussionTarget, new Update().set("commentCount", commentCount),
+                Discussion.class).getMatchedCount() == 0) {
+            throw new ResourceNotFoundException("Discussion not found with id: " + comment.getDiscussionId());
+        }
     }
     
     @Override
     public CommentResponseDTO toggleLike(String commentId, String userId) {
-        Comment comment = commentRepository.findByIdAndNotDeleted(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + commentId));
-        
-        List<String> likedBy = comment.getLikedBy();
-        
-        if (likedBy.contains(userId)) {
-            // 取消点赞
-            likedBy.remove(userId);
-            comment.setLikeCount(comment.getLikeCount() - 1);
-        } else {
-            // 添加点赞
-            likedBy.add(userId);
-            comment.setLikeCount(comment.getLikeCount() + 1);
+        return toggleReaction(commentId, ReactionType.LIKE, userId);
+    }
+    
+    @Override
+    public CommentResponseDTO toggleReaction(String commentId, ReactionType type, String userId) {
+        Query target = Query.query(Criteria.where("_id").is(commentId).and("deleted").is(false));
+        if (!mongoTemplate.exists(target, Comment.class)) {
+            throw new ResourceNotFoundException("Comment not found with id: " + commentId);
         }
         
-        comment.setLikedBy(likedBy);
-        comment.setUpdateTime(LocalDateTime.now());
-        
-        Comment updatedComment = commentRepository.save(comment);
+        // 互动记录原子增删，评论上只以$inc维护计数
+        int delta = reactionService.toggle(Reaction.TargetType.COMMENT, commentId, userId, type);
+        Update update = new Update().set("updateTime", LocalDateTime.now());
+        if (delta != 0) {
+            update.inc(type.counterField(), delta);
+        }
+        Comment updatedComment = mongoTemplate.findAndModify(target, update,
+                FindAndModifyOptions.options().returnNew(true), Comment.class);
+        if (updatedComment == null) {
+            throw new ResourceNotFoundException("Comment not found with id: " + commentId);
+        }
         return mapCommentToResponseDTO(updatedComment, userId);
     }
     
@@ -228,12 +287,10 @@ public class CommentServiceImpl implements CommentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + commentId));
         
         // 设置为已举报状态
-        comment.setStatus("FLAGGED");
-        comment.setUpdateTime(LocalDateTime.now());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(comment.getId())),
+                new Update().set("status", "FLAGGED").set("updateTime", LocalDateTime.now()), Comment.class);
         
         // TODO: 保存举报信息到单独的举报表中
-        
-        commentRepository.save(comment);
     }
     
     // 辅助方法
@@ -301,7 +358,20 @@ public class CommentServiceImpl implements CommentService {
     }
     
     private CommentResponseDTO mapCommentToResponseDTO(Comment comment, String currentUserId) {
-        return CommentResponseDTO.builder()
+        return mapCommentToResponseDTO(comment, reactionService.findReactions(List.of(comment.getId()), currentUserId));
+    }
+    
+    private CommentResponseDTO mapCommentToResponseDTO(Comment comment, Map<String, Set<ReactionType>> reactions) {
+        return mapCommentToResponseDTO(comment, reactions, null);
+    }
+    
+    /**
+     * @param selected fields参数选择的字段，为null时返回全部字段；未选择的计算字段不计算，其余未选择字段清空
+     */
+    private CommentResponseDTO mapCommentToResponseDTO(Comment comment, Map<String, Set<ReactionType>> reactions,
+                                                       Set<String> selected) {
+        Set<ReactionType> myReactions = reactions.getOrDefault(comment.getId(), Set.of());
+        CommentResponseDTO dto = CommentResponseDTO.builder()
                 .id(comment.getId())
                 .discussionId(comment.getDiscussionId())
                 .content(comment.getContent())
@@ -320,11 +390,18 @@ public class CommentServiceImpl implements CommentService {
                 .replyToUserId(comment.getReplyToUserId())
                 .replyToUsername(comment.getReplyToUsername())
                 .likeCount(comment.getLikeCount())
-                .isLiked(comment.getLikedBy() != null && comment.getLikedBy().contains(currentUserId))
-                .attachments(mapAttachmentsToAttachmentDTOs(comment.getAttachments()))
+                .isLiked(ResponseProjection.includes(selected, "isLiked")
+                        ? myReactions.contains(ReactionType.LIKE) : null)
+                .reactionCounts(ResponseProjection.includes(selected, "reactionCounts")
+                        ? ReactionServiceImpl.countsOf(comment.getLikeCount(), comment.getReactionCounts()) : null)
+                .myReactions(ResponseProjection.includes(selected, "myReactions")
+                        ? myReactions.stream().map(Enum::name).collect(Collectors.toSet()) : null)
+                .attachments(ResponseProjection.includes(selected, "attachments")
+                        ? mapAttachmentsToAttachmentDTOs(comment.getAttachments()) : null)
                 .status(comment.getStatus())
                 .createTime(comment.getCreateTime())
                 .updateTime(comment.getUpdateTime())
                 .build();
+        return LIST_PROJECTION.retain(dto, selected);
     }
 }
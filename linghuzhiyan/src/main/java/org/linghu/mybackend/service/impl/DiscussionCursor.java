@@ -0,0 +1,121 @@
+package org.linghu.mybackend.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.exception.InvalidCursorException;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 讨论列表的定位游标
+ * 记录上一页最后一条讨论在排序键 (priority, 排序字段, _id) 上的取值，
+ * 下一页以范围条件从该位置之后继续读取，不使用skip
+ *
+ * @param sortField 排序字段
+ * @param ascending 排序字段是否升序（priority始终降序）
+ * @param priority 置顶优先级
+ * @param value 排序字段的值，可能为null
+ * @param id 讨论ID
+ */
+record DiscussionCursor(String sortField, boolean ascending, int priority, Object value, String id) {
+
+    private static final Set<String> TIME_FIELDS = Set.of("createTime", "lastActivityTime");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() { });
+    private static final ObjectWriter WRITER = MAPPER.writerFor(Map.class);
+
+    /**
+     * 以指定讨论为位置创建游标
+     */
+    static DiscussionCursor after(Discussion discussion, String sortField, boolean ascending) {
+        Object value = switch (sortField) {
+            case "createTime" -> discussion.getCreateTime();
+            case "likeCount" -> discussion.getLikeCount();
+            case "commentCount" -> discussion.getCommentCount();
+            case "viewCount" -> discussion.getViewCount();
+            default -> discussion.getLastActivityTime();
+        };
+        int priority = discussion.getPriority() == null ? 0 : discussion.getPriority();
+        return new DiscussionCursor(sortField, ascending, priority, value, discussion.getId());
+    }
+
+    /**
+     * 编码为URL安全的不透明字符串
+     */
+    String encode() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("s", sortField);
+        fields.put("a", ascending);
+        fields.put("p", priority);
+        fields.put("v", value == null ? null : value.toString());
+        fields.put("id", id);
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(WRITER.writeValueAsBytes(fields));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 解码游标，并校验其排序方式与本次请求一致
+     */
+    static DiscussionCursor decode(String cursor, String sortField, boolean ascending) {
+        try {
+            Map<String, Object> fields = READER.readValue(
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (!sortField.equals(fields.get("s")) || !Boolean.valueOf(ascending).equals(fields.get("a"))) {
+                throw new InvalidCursorException();
+            }
+            String raw = (String) fields.get("v");
+            Object value = raw == null ? null
+                    : TIME_FIELDS.contains(sortField) ? LocalDateTime.parse(raw) : Long.valueOf(raw);
+            return new DiscussionCursor(sortField, ascending, ((Number) fields.get("p")).intValue(),
+                    value, (String) Objects.requireNonNull(fields.get("id")));
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * 位于游标之后的范围条件
+     * Mongo的比较运算符不匹配null，而null在排序中最小，因此需要单独处理排序字段为null的文档
+     */
+    Criteria toCriteria() {
+        Criteria samePriority = Criteria.where("priority").is(priority).andOperator(valueAfter());
+        return new Criteria().orOperator(Criteria.where("priority").lt(priority), samePriority);
+    }
+
+    private Criteria valueAfter() {
+        if (ascending) {
+            if (value == null) {
+                return new Criteria().orOperator(
+                        Criteria.where(sortField).ne(null),
+                        Criteria.where(sortField).is(null).and("_id").gt(id));
+            }
+            return new Criteria().orOperator(
+                    Criteria.where(sortField).gt(value),
+                    Criteria.where(sortField).is(value).and("_id").gt(id));
+        }
+        if (value == null) {
+            return Criteria.where(sortField).is(null).and("_id").lt(id);
+        }
+        return new Criteria().orOperator(
+                Criteria.where(sortField).lt(value),
+                Criteria.where(sortField).is(null),
+                Criteria.where(sortField).is(value).and("_id").lt(id));
+    }
+}
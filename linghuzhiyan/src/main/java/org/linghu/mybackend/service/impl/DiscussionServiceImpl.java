@@ -1,25 +1,36 @@
 package org.linghu.mybackend.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.linghu.mybackend.constants.SystemConstants;
 import org.linghu.mybackend.domain.Attachment;
 import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.domain.Reaction;
+import org.linghu.mybackend.domain.ReactionType;
 import org.linghu.mybackend.domain.RichContent;
 import org.linghu.mybackend.dto.AttachmentDTO;
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.DiscussionRequestDTO;
 import org.linghu.mybackend.dto.DiscussionResponseDTO;
 import org.linghu.mybackend.dto.PriorityRequestDTO;
 import org.linghu.mybackend.dto.ReviewRequestDTO;
 import org.linghu.mybackend.dto.RichContentDTO;
 import org.linghu.mybackend.dto.UserDTO;
+import org.linghu.mybackend.exception.InvalidPageSizeException;
 import org.linghu.mybackend.exception.ResourceNotFoundException;
 import org.linghu.mybackend.exception.UnauthorizedException;
 import org.linghu.mybackend.repository.DiscussionRepository;
 import org.linghu.mybackend.service.DiscussionService;
+import org.linghu.mybackend.service.ReactionService;
 import org.linghu.mybackend.service.UserService;
+import org.linghu.mybackend.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -30,15 +41,43 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DiscussionServiceImpl implements DiscussionService {
     
+    // 列表返回字段：summary视图不读取正文与富文本
+    private static final ResponseProjection LIST_PROJECTION = new ResponseProjection(
+            Set.of("id", "title", "content", "richContent", "userId", "username", "userAvatar", "tags",
+                    "experimentId", "status", "rejectionReason", "priority", "viewCount", "commentCount",
+                    "likeCount", "isLiked", "reactionCounts", "myReactions", "lastCommentTime", "lastActivityTime", "attachments", "createTime",
+                    "updateTime", "approvedTime"),
+            List.of("content", "richContent"));
+
     private final DiscussionRepository discussionRepository;
     private final UserService userService;
+    private final ReactionService reactionService;
+    private final ViewCountAggregator viewCountAggregator;
     private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // 讨论总数缓存：游标分页按需返回总数，按过滤条件短时缓存
+    @Value("${discussion.count-cache.size:1000}")
+    private int countCacheSize;
+
+    @Value("${discussion.count-cache.ttl-seconds:30}")
+    private long countCacheTtlSeconds;
+
+    private LruCache<String, Long> countCache;
+
+    @PostConstruct
+    void initCountCache() {
+        countCache = new LruCache<>(countCacheSize, countCacheTtlSeconds * 1000);
+        countCache.bindTo(meterRegistry, "discussion.count");
+    }
       @Override
     public DiscussionResponseDTO createDiscussion(DiscussionRequestDTO requestDTO, String userId) {
         UserDTO userInfo = userService.getUserInfo(userId);
@@ -60,7 +99,6 @@ public class DiscussionServiceImpl implements DiscussionService {
                 .viewCount(0L)
                 .commentCount(0L)
                 .likeCount(0L)
-                .likedBy(new ArrayList<>())
                 .lastActivityTime(LocalDateTime.now())
                 .attachments(mapAttachmentDTOsToAttachments(requestDTO.getAttachments()))
                 .deleted(false)
@@ -69,7 +107,7 @@ public class DiscussionServiceImpl implements DiscussionService {
                 .build();
         
         Discussion savedDiscussion = discussionRepository.save(discussion);
-        return mapDiscussionToResponseDTO(savedDiscussion, userId);
+        return mapDiscussionToResponseDTO(savedDiscussion, Map.of());
     }
     
     @Override
@@ -83,13 +121,104 @@ public class DiscussionServiceImpl implements DiscussionService {
             String order,
             int page, 
             int size,
+            String view,
+            String fields,
             String currentUserId) {
         
         Sort sort = createSort(sortBy, order);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<Discussion> discussions;
+        Query query = buildFilterQuery(tags, experimentId, userId, status, keyword);
         
+        // 执行查询
+        long total = mongoTemplate.count(query, Discussion.class);
+        Query pageQuery = ResponseProjection.apply(query,
+                LIST_PROJECTION.build(view, fields, List.of()));
+        pageQuery.with(pageable);
+        List<Discussion> content = mongoTemplate.find(pageQuery, Discussion.class);
+        
+        Page<Discussion> discussionsPage = new org.springframework.data.domain.PageImpl<>(content, pageable, total);
+        
+        // 当前用户对本页讨论的互动一次查询
+        Map<String, Set<ReactionType>> reactions = reactionService.findReactions(
+                content.stream().map(Discussion::getId).collect(Collectors.toList()), currentUserId);
+        Set<String> selected = ResponseProjection.selected(fields);
+        return discussionsPage.map(discussion -> mapDiscussionToResponseDTO(discussion, reactions, selected));
+    }
+
+    @Override
+    public CursorPageResult<DiscussionResponseDTO> getDiscussionsByCursor(
+            String[] tags,
+            String experimentId,
+            String userId,
+            String status,
+            String keyword,
+            String sortBy,
+            String order,
+            String cursor,
+            int size,
+            boolean includeTotal,
+            String view,
+            String fields,
+            String currentUserId) {
+
+        if (size < 1) {
+            throw new InvalidPageSizeException();
+        }
+        size = Math.min(size, SystemConstants.MAX_PAGE_SIZE);
+        String sortField = resolveSortField(sortBy);
+        boolean ascending = "asc".equalsIgnoreCase(order);
+        Query query = buildFilterQuery(tags, experimentId, userId, status, keyword);
+
+        // 总数只在请求时返回，并按过滤条件短时缓存
+        Long total = includeTotal ? countCached(query) : null;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            query.addCriteria(DiscussionCursor.decode(cursor, sortField, ascending).toCriteria());
+        }
+        // 游标需要排序键，稀疏字段时也一并读取
+        Query pageQuery = ResponseProjection.apply(query,
+                LIST_PROJECTION.build(view, fields, List.of("priority", sortField)));
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        pageQuery.with(Sort.by(Sort.Order.desc("priority"), new Sort.Order(direction, sortField),
+                new Sort.Order(direction, "_id")));
+        // 多取一条用于判断是否还有下一页
+        pageQuery.limit(size + 1);
+        List<Discussion> content = mongoTemplate.find(pageQuery, Discussion.class);
+
+        boolean hasMore = content.size() > size;
+        if (hasMore) {
+            content = content.subList(0, size);
+        }
+        String nextCursor = hasMore
+                ? DiscussionCursor.after(content.get(content.size() - 1), sortField, ascending).encode()
+                : null;
+
+        Map<String, Set<ReactionType>> reactions = reactionService.findReactions(
+                content.stream().map(Discussion::getId).collect(Collectors.toList()), currentUserId);
+        Set<String> selected = ResponseProjection.selected(fields);
+
+        return CursorPageResult.<DiscussionResponseDTO>builder()
+                .list(content.stream()
+                        .map(discussion -> mapDiscussionToResponseDTO(discussion, reactions, selected))
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .total(total)
+                .pageSize(size)
+                .build();
+    }
+
+    private long countCached(Query filter) {
+        return countCache.computeIfAbsent(filter.getQueryObject().toJson(),
+                key -> mongoTemplate.count(filter, Discussion.class));
+    }
+
+    /**
+     * 构建讨论列表的过滤条件
+     */
+    private Query buildFilterQuery(String[] tags, String experimentId, String userId, String status,
+                                   String keyword) {
         // 构建基础查询
         Query query = new Query();
         query.addCriteria(Criteria.where("deleted").is(false));
@@ -118,15 +247,7 @@ public class DiscussionServiceImpl implements DiscussionService {
             // 使用文本搜索
             query.addCriteria(Criteria.where("$text").is(keyword));
         }
-        
-        // 执行查询
-        long total = mongoTemplate.count(query, Discussion.class);
-        query.with(pageable);
-        List<Discussion> content = mongoTemplate.find(query, Discussion.class);
-        
-        Page<Discussion> discussionsPage = new org.springframework.data.domain.PageImpl<>(content, pageable, total);
-        
-        return discussionsPage.map(discussion -> mapDiscussionToResponseDTO(discussion, currentUserId));
+        return query;
     }
     
     @Override
@@ -134,10 +255,17 @@ public class DiscussionServiceImpl implements DiscussionService {
         Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + id));
         
-        // 增加浏览次数
+        // 增加浏览次数（内存累计，定时写回）
         incrementViewCount(id);
         
-        return mapDiscussionToResponseDTO(discussion, currentUserId);
+        DiscussionResponseDTO responseDTO = mapDiscussionToResponseDTO(discussion, currentUserId);
+        // 补上尚未写回的浏览数
+        long pendingViews = viewCountAggregator.pending(id);
+        if (pendingViews > 0) {
+            long viewCount = discussion.getViewCount() != null ? discussion.getViewCount() : 0L;
+            responseDTO.setViewCount(viewCount + pendingViews);
+        }
+        return responseDTO;
     }
     
     @Override
@@ -151,24 +279,25 @@ public class DiscussionServiceImpl implements DiscussionService {
         }
         
         // 更新内容
-        discussion.setTitle(requestDTO.getTitle());
-        discussion.setContent(requestDTO.getContent());
-        discussion.setRichContent(RichContent.builder()
-                .html(requestDTO.getRichContent().getHtml())
-                .delta(requestDTO.getRichContent().getDelta())
-                .build());
-        discussion.setTags(requestDTO.getTags());
-        discussion.setUpdateTime(LocalDateTime.now());
-        discussion.setLastActivityTime(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("title", requestDTO.getTitle())
+                .set("content", requestDTO.getContent())
+                .set("richContent", RichContent.builder()
+                        .html(requestDTO.getRichContent().getHtml())
+                        .delta(requestDTO.getRichContent().getDelta())
+                        .build())
+                .set("tags", requestDTO.getTags())
+                .set("updateTime", now)
+                .set("lastActivityTime", now)
+                // 更新后重新设为待审核状态
+                .set("status", "PENDING");
         // 如果有附件更新
         if (requestDTO.getAttachments() != null) {
-            discussion.setAttachments(mapAttachmentDTOsToAttachments(requestDTO.getAttachments()));
+            update.set("attachments", mapAttachmentDTOsToAttachments(requestDTO.getAttachments()));
         }
         
-        // 更新后重新设为待审核状态
-        discussion.setStatus("PENDING");
-        
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        Discussion updatedDiscussion = updateFields(id, update);
         return mapDiscussionToResponseDTO(updatedDiscussion, userId);
     }
     
@@ -183,91 +312,110 @@ public class DiscussionServiceImpl implements DiscussionService {
         }
         
         // 软删除
-        discussion.setDeleted(true);
-        discussion.setUpdateTime(LocalDateTime.now());
-        discussionRepository.save(discussion);
+        updateFields(id, new Update().set("deleted", true).set("updateTime", LocalDateTime.now()));
         return true;
     }
     
     @Override
     public DiscussionResponseDTO reviewDiscussion(String id, ReviewRequestDTO requestDTO, String reviewerId) {
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + id));
-        
         // 更新审核状态
-        discussion.setStatus(requestDTO.getStatus());
+        Update update = new Update().set("status", requestDTO.getStatus());
         
         if ("REJECTED".equals(requestDTO.getStatus())) {
-            discussion.setRejectionReason(requestDTO.getRejectionReason());
+            update.set("rejectionReason", requestDTO.getRejectionReason());
         } else if ("APPROVED".equals(requestDTO.getStatus())) {
-            discussion.setApprovedTime(LocalDateTime.now());
-            discussion.setApprovedBy(reviewerId);
+            update.set("approvedTime", LocalDateTime.now());
+            update.set("approvedBy", reviewerId);
         }
         
-        discussion.setUpdateTime(LocalDateTime.now());
+        update.set("updateTime", LocalDateTime.now());
         
-        Discussion reviewedDiscussion = discussionRepository.save(discussion);
+        Discussion reviewedDiscussion = updateFields(id, update);
         return mapDiscussionToResponseDTO(reviewedDiscussion, reviewerId);
     }
     
     @Override
     public DiscussionResponseDTO updatePriority(String id, PriorityRequestDTO requestDTO, String userId) {
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + id));
-        
-        discussion.setPriority(requestDTO.getPriority());
-        discussion.setUpdateTime(LocalDateTime.now());
-        
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        Discussion updatedDiscussion = updateFields(id, new Update()
+                .set("priority", requestDTO.getPriority())
+                .set("updateTime", LocalDateTime.now()));
         return mapDiscussionToResponseDTO(updatedDiscussion, userId);
     }
     
     @Override
     public DiscussionResponseDTO toggleLike(String id, String userId) {
-        Discussion discussion = discussionRepository.findByIdAndNotDeleted(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Discussion not found with id: " + id));
-        
-        List<String> likedBy = discussion.getLikedBy();
-        
-        if (likedBy.contains(userId)) {
-            // 取消点赞
-            likedBy.remove(userId);
-            discussion.setLikeCount(discussion.getLikeCount() - 1);
-        } else {
-            // 添加点赞
-            likedBy.add(userId);
-            discussion.setLikeCount(discussion.getLikeCount() + 1);
+        return toggleReaction(id, ReactionType.LIKE, userId);
+    }
+    
+    @Override
+    public DiscussionResponseDTO toggleReaction(String id, ReactionType type, String userId) {
+        Query target = Query.query(Criteria.where("_id").is(id).and("deleted").is(false));
+        if (!mongoTemplate.exists(target, Discussion.class)) {
+            throw new ResourceNotFoundException("Discussion not found with id: " + id);
         }
         
-        discussion.setLikedBy(likedBy);
-        discussion.setUpdateTime(LocalDateTime.now());
-        discussion.setLastActivityTime(LocalDateTime.now());
-        
-        Discussion updatedDiscussion = discussionRepository.save(discussion);
+        // 互动记录原子增删，讨论上只以$inc维护计数，不读写整个文档
+        int delta = reactionService.toggle(Reaction.TargetType.DISCUSSION, id, userId, type);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("updateTime", now).set("lastActivityTime", now);
+        if (delta != 0) {
+            update.inc(type.counterField(), delta);
+        }
+        Discussion updatedDiscussion = mongoTemplate.findAndModify(target, update,
+                FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (updatedDiscussion == null) {
+            throw new ResourceNotFoundException("Discussion not found with id: " + id);
+        }
         return mapDiscussionToResponseDTO(updatedDiscussion, userId);
     }
     
     @Override
     public void incrementViewCount(String id) {
-        Update update = new Update().inc("viewCount", 1);
-        mongoTemplate.updateFirst(
-                Query.query(Criteria.where("_id").is(id)), 
-                update, 
-                Discussion.class);
+        viewCountAggregator.record(id);
     }
     
     // 辅助方法
     
-    private Sort createSort(String sortBy, String order) {
-        if (sortBy == null || sortBy.isEmpty()) {
-            sortBy = "lastActivityTime";  // 默认按最后活动时间排序
+    /**
+     * 只更新指定字段并返回更新后的讨论；不整体保存文档，避免以旧值覆盖$inc维护的计数
+     */
+    private Discussion updateFields(String id, Update update) {
+        Query target = Query.query(Criteria.where("_id").is(id).and("deleted").is(false));
+        Discussion updatedDiscussion = mongoTemplate.findAndModify(target, update,
+                FindAndModifyOptions.options().returnNew(true), Discussion.class);
+        if (updatedDiscussion == null) {
+            throw new ResourceNotFoundException("Discussion not found with id: " + id);
         }
-        
+        return updatedDiscussion;
+    }
+    
+    private Sort createSort(String sortBy, String order) {
         if (order == null || order.isEmpty()) {
             order = "desc";  // 默认降序
         }
         
-        // 映射API参数到字段名称
+        String fieldName = resolveSortField(sortBy);
+        
+        // 创建排序
+        Sort sort;
+        if ("asc".equals(order.toLowerCase())) {
+            sort = Sort.by(fieldName).ascending();
+        } else {
+            sort = Sort.by(fieldName).descending();
+        }
+        
+        // 置顶内容总是优先
+        return Sort.by(Sort.Order.desc("priority")).and(sort);
+    }
+
+    /**
+     * 映射API排序参数到字段名称，默认按最后活动时间
+     */
+    private String resolveSortField(String sortBy) {
+        if (sortBy == null || sortBy.isEmpty()) {
+            return "lastActivityTime";
+        }
+        
         String fieldName;
         switch (sortBy) {
             case "createTime":
@@ -288,17 +436,7 @@ public class DiscussionServiceImpl implements DiscussionService {
             default:
                 fieldName = "lastActivityTime";
         }
-        
-        // 创建排序
-        Sort sort;
-        if ("asc".equals(order.toLowerCase())) {
-            sort = Sort.by(fieldName).ascending();
-        } else {
-            sort = Sort.by(fieldName).descending();
-        }
-        
-        // 置顶内容总是优先
-        return Sort.by(Sort.Order.desc("priority")).and(sort);
+        return fieldName;
     }
     
     private List<Attachment> mapAttachmentDTOsToAttachments(List<AttachmentDTO> attachmentDTOs) {
@@ -334,14 +472,31 @@ public class DiscussionServiceImpl implements DiscussionService {
     }
     
     private DiscussionResponseDTO mapDiscussionToResponseDTO(Discussion discussion, String currentUserId) {
-        return DiscussionResponseDTO.builder()
+        return mapDiscussionToResponseDTO(discussion,
+                reactionService.findReactions(List.of(discussion.getId()), currentUserId));
+    }
+    
+    private DiscussionResponseDTO mapDiscussionToResponseDTO(Discussion discussion,
+                                                             Map<String, Set<ReactionType>> reactions) {
+        return mapDiscussionToResponseDTO(discussion, reactions, null);
+    }
+    
+    /**
+     * @param selected fields参数选择的字段，为null时返回全部字段；未选择的计算字段不计算，其余未选择字段清空
+     */
+    private DiscussionResponseDTO mapDiscussionToResponseDTO(Discussion discussion,
+                                                             Map<String, Set<ReactionType>> reactions,
+                                                             Set<String> selected) {
+        Set<ReactionType> myReactions = reactions.getOrDefault(discussion.getId(), Set.of());
+        DiscussionResponseDTO dto = DiscussionResponseDTO.builder()
                 .id(discussion.getId())
                 .title(discussion.getTitle())
                 .content(discussion.getContent())
-                .richContent(RichContentDTO.builder()
-                        .html(discussion.getRichContent() != null ? discussion.getRichContent().getHtml() : null)
-                        .delta(discussion.getRichContent() != null ? discussion.getRichContent().getDelta() : null)
-                        .build())
+                .richContent(discussion.getRichContent() != null ?
+                        RichContentDTO.builder()
+                                .html(discussion.getRichContent().getHtml())
+                                .delta(discussion.getRichContent().getDelta())
+                                .build() : null)
                 .userId(discussion.getUserId())
                 .username(discussion.getUsername())
                 .userAvatar(discussion.getUserAvatar())
@@ -353,13 +508,20 @@ public class DiscussionServiceImpl implements DiscussionService {
                 .viewCount(discussion.getViewCount())
                 .commentCount(discussion.getCommentCount())
                 .likeCount(discussion.getLikeCount())
-                .isLiked(discussion.getLikedBy() != null && discussion.getLikedBy().contains(currentUserId))
+                .isLiked(ResponseProjection.includes(selected, "isLiked")
+                        ? myReactions.contains(ReactionType.LIKE) : null)
+                .reactionCounts(ResponseProjection.includes(selected, "reactionCounts")
+                        ? ReactionServiceImpl.countsOf(discussion.getLikeCount(), discussion.getReactionCounts()) : null)
+                .myReactions(ResponseProjection.includes(selected, "myReactions")
+                        ? myReactions.stream().map(Enum::name).collect(Collectors.toSet()) : null)
                 .lastCommentTime(discussion.getLastCommentTime())
                 .lastActivityTime(discussion.getLastActivityTime())
-                .attachments(mapAttachmentsToAttachmentDTOs(discussion.getAttachments()))
+                .attachments(ResponseProjection.includes(selected, "attachments")
+                        ? mapAttachmentsToAttachmentDTOs(discussion.getAttachments()) : null)
                 .createTime(discussion.getCreateTime())
                 .updateTime(discussion.getUpdateTime())
                 .approvedTime(discussion.getApprovedTime())
                 .build();
+        return LIST_PROJECTION.retain(dto, selected);
     }
 }
@@ -0,0 +1,128 @@
+package org.linghu.mybackend.service.impl;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.linghu.mybackend.domain.Reaction;
+import org.linghu.mybackend.domain.Reaction.TargetType;
+import org.linghu.mybackend.domain.ReactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 旧点赞数据迁移
+ * 将讨论和评论中内嵌的likedBy数组逐个文档转为reactions集合中的记录，随后删除该数组；
+ * 以upsert写入，重复执行不会产生重复记录，likeCount保持不变；多个实例同时启动时，
+ * 并发upsert在唯一索引上产生的重复键错误说明记录已由其他实例写入，按成功处理；
+ * 迁移在Bean初始化时同步执行（在mongoIndexes创建唯一索引之后、Web服务接收请求之前），
+ * 全部完成后写入迁移标记，之后的启动不再扫描集合
+ */
+@Slf4j
+@Component
+@DependsOn("mongoIndexes")
+public class LegacyLikeMigrator {
+
+    private static final Map<String, TargetType> COLLECTIONS =
+            Map.of("discussions", TargetType.DISCUSSION, "comments", TargetType.COMMENT);
+    private static final String LIKED_BY = "likedBy";
+    private static final String MIGRATIONS = "migrations";
+    private static final String MIGRATION_ID = "reactions-from-likedBy";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${reaction.legacy-migration.enabled:true}")
+    private boolean enabled;
+
+    public LegacyLikeMigrator(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * 同步迁移；失败时中止启动，避免在likedBy尚未迁移时以新模型处理点赞
+     */
+    @PostConstruct
+    void migrateOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        if (migrations.find(Filters.eq("_id", MIGRATION_ID)).first() != null) {
+            return;
+        }
+        try {
+            COLLECTIONS.forEach(this::migrate);
+            try {
+                migrations.insertOne(new Document("_id", MIGRATION_ID).append("completedTime", new Date()));
+            } catch (MongoWriteException e) {
+                // 其他实例已写入迁移标记
+                if (ErrorCategory.fromErrorCode(e.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+            }
+        } catch (MongoException e) {
+            throw new IllegalStateException("迁移旧点赞数据失败", e);
+        }
+    }
+
+    private void migrate(String collection, TargetType targetType) {
+        MongoCollection<Document> source = mongoTemplate.getCollection(collection);
+        MongoCollection<Document> reactions = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(Reaction.class));
+        long documents = 0;
+        long migrated = 0;
+        for (Document document : source.find(Filters.exists(LIKED_BY)).projection(Projections.include(LIKED_BY))) {
+            Object id = document.get("_id");
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            for (Object userId : document.getList(LIKED_BY, Object.class, List.of())) {
+                if (userId == null) {
+                    continue;
+                }
+                Bson key = Filters.and(Filters.eq("targetId", id.toString()),
+                        Filters.eq("userId", userId.toString()),
+                        Filters.eq("type", ReactionType.LIKE.name()));
+                writes.add(new UpdateOneModel<>(key, Updates.combine(
+                        Updates.setOnInsert("targetType", targetType.name()),
+                        Updates.setOnInsert("createTime", new Date())),
+                        new UpdateOptions().upsert(true)));
+            }
+            if (!writes.isEmpty()) {
+                try {
+                    reactions.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                } catch (MongoBulkWriteException e) {
+                    // 无序写入中其余记录已写入；只有重复键错误时对应记录已存在
+                    boolean duplicatesOnly = e.getWriteErrors().stream()
+                            .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+                    if (!duplicatesOnly || e.getWriteConcernError() != null) {
+                        throw e;
+                    }
+                }
+                migrated += writes.size();
+            }
+            source.updateOne(Filters.eq("_id", id), Updates.unset(LIKED_BY));
+            documents++;
+        }
+        if (documents > 0) {
+            log.info("已迁移{}中{}个文档的{}条点赞记录", collection, documents, migrated);
+        }
+    }
+}
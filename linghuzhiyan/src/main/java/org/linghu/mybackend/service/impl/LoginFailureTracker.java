@@ -0,0 +1,143 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.linghu.mybackend.repository.LoginLogRepository;
+import org.linghu.mybackend.utils.SlidingWindowCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 登录失败滑动窗口跟踪器
+ * 按用户和IP在内存中统计近期失败次数，锁定判断无需查询login_logs；
+ * 仅在启动后窗口尚未覆盖完整时，对首次查询的键用数据库记录回填一次；
+ * IP来自可伪造的X-Forwarded-For，用户与IP各自限制跟踪的键数量，达到上限后新键不再计数也不再回填
+ */
+@Component
+public class LoginFailureTracker {
+
+    private final LoginLogRepository loginLogRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${login-log.failure-window.bucket-seconds:10}")
+    private long bucketSeconds;
+
+    @Value("${login-log.failure-window.bucket-count:360}")
+    private int bucketCount;
+
+    @Value("${login-log.failure-window.max-keys:20000}")
+    private int maxKeys;
+
+    private SlidingWindowCounter<String> userFailures;
+    private SlidingWindowCounter<String> ipFailures;
+    private Counter droppedCounter;
+
+    // 启动时间：早于此时间的失败记录只存在于数据库中
+    private final long startedAt = System.currentTimeMillis();
+    private final Set<String> seededUsers = ConcurrentHashMap.newKeySet();
+    private final Set<String> seededIps = ConcurrentHashMap.newKeySet();
+
+    public LoginFailureTracker(LoginLogRepository loginLogRepository, MeterRegistry meterRegistry) {
+        this.loginLogRepository = loginLogRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        userFailures = new SlidingWindowCounter<>(bucketSeconds * 1000, bucketCount, maxKeys);
+        ipFailures = new SlidingWindowCounter<>(bucketSeconds * 1000, bucketCount, maxKeys);
+        Gauge.builder("login_log.failure_tracker.users", userFailures, SlidingWindowCounter::size)
+                .register(meterRegistry);
+        Gauge.builder("login_log.failure_tracker.ips", ipFailures, SlidingWindowCounter::size)
+                .register(meterRegistry);
+        droppedCounter = meterRegistry.counter("login_log.failure_tracker.dropped");
+    }
+
+    /**
+     * 记录一次登录失败
+     */
+    public void recordFailure(String userId, String ipAddress, long timestampMillis) {
+        if (userId != null && !userFailures.increment(userId, timestampMillis)) {
+            droppedCounter.increment();
+        }
+        if (ipAddress != null && !ipFailures.increment(ipAddress, timestampMillis)) {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * 是否能由内存窗口回答指定时长的查询
+     */
+    public boolean covers(int minutes) {
+        return minutes * 60_000L <= userFailures.getMaxWindowMillis();
+    }
+
+    /**
+     * 统计用户在最近若干分钟内的失败次数
+     */
+    public long countUserFailures(String userId, int minutes) {
+        long now = System.currentTimeMillis();
+        long windowMillis = minutes * 60_000L;
+        seedIfCold(userId, seededUsers, userFailures, now, windowMillis,
+                () -> loginLogRepository.findFailedAttemptTimesByUserId(userId,
+                        toLocalDateTime(now - userFailures.getMaxWindowMillis()), toLocalDateTime(startedAt)));
+        return userFailures.count(userId, now, windowMillis);
+    }
+
+    /**
+     * 统计IP在最近若干分钟内的失败次数
+     */
+    public long countIpFailures(String ipAddress, int minutes) {
+        long now = System.currentTimeMillis();
+        long windowMillis = minutes * 60_000L;
+        seedIfCold(ipAddress, seededIps, ipFailures, now, windowMillis,
+                () -> loginLogRepository.findFailedAttemptTimesByIpAddress(ipAddress,
+                        toLocalDateTime(now - ipFailures.getMaxWindowMillis()), toLocalDateTime(startedAt)));
+        return ipFailures.count(ipAddress, now, windowMillis);
+    }
+
+    /**
+     * 冷启动回填：查询窗口早于启动时间时，用数据库中启动前的失败记录补全该键的计数
+     */
+    private void seedIfCold(String key, Set<String> seeded, SlidingWindowCounter<String> counter,
+                            long now, long windowMillis, Supplier<List<LocalDateTime>> loader) {
+        // 键数量已达上限时不回填，避免伪造的键触发数据库查询
+        if (now - windowMillis >= startedAt || !counter.canTrack(key) || seeded.size() >= maxKeys
+                || !seeded.add(key)) {
+            return;
+        }
+        for (LocalDateTime time : loader.get()) {
+            counter.increment(key, time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    /**
+     * 定期清理窗口内无失败记录的键
+     */
+    @Scheduled(fixedDelayString = "${login-log.failure-window.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        userFailures.evictIdle(now);
+        ipFailures.evictIdle(now);
+        // 窗口已完整覆盖启动后的时间，回填标记不再需要
+        if (now - userFailures.getMaxWindowMillis() >= startedAt) {
+            seededUsers.clear();
+            seededIps.clear();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
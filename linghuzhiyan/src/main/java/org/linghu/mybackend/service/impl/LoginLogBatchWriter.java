@@ -0,0 +1,255 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.LoginLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录日志异步批量写入器
+ * 请求线程只负责入队，由单个后台线程按批量大小或时间间隔合并为多行JDBC批量插入，
+ * 避免登录高峰时每个请求各自执行一次INSERT（IDENTITY主键会使Hibernate批量写入失效）
+ */
+@Slf4j
+@Component
+public class LoginLogBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO login_logs "
+            + "(user_id, ip_address, device_type, status, failure_reason, created_at, login_info, "
+            + "request_method, user_agent_id, referer_id, uri_id, failure_reason_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 丢弃新日志并计数 */
+        DROP,
+        /** 由调用线程同步写入（施加背压） */
+        CALLER_RUNS
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LoginLogDictionary loginLogDictionary;
+
+    @Value("${login-log.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${login-log.async.batch-size:200}")
+    private int batchSize;
+
+    @Value("${login-log.async.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${login-log.async.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    private BlockingQueue<LoginLog> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter enqueuedCounter;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer flushTimer;
+
+    public LoginLogBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry, LoginLogDictionary loginLogDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.loginLogDictionary = loginLogDictionary;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        enqueuedCounter = meterRegistry.counter("login_log.writer.enqueued");
+        droppedCounter = meterRegistry.counter("login_log.writer.dropped");
+        writtenCounter = meterRegistry.counter("login_log.writer.written");
+        failedCounter = meterRegistry.counter("login_log.writer.failed");
+        flushTimer = meterRegistry.timer("login_log.writer.flush");
+        Gauge.builder("login_log.writer.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::runLoop, "login-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 提交一条登录日志，队列满时按配置的策略处理
+     *
+     * @param loginLog 登录日志
+     * @return 是否已被接收（入队或同步写入）
+     */
+    public boolean submit(LoginLog loginLog) {
+        if (running && queue.offer(loginLog)) {
+            enqueuedCounter.increment();
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            flush(List.of(loginLog));
+            return true;
+        }
+        droppedCounter.increment();
+        log.warn("登录日志队列已满，丢弃日志: userId={}, status={}", loginLog.getUserId(), loginLog.getStatus());
+        return false;
+    }
+
+    /**
+     * 当前排队等待写入的日志数量
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private void runLoop() {
+        List<LoginLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoginLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // 在时间窗口内尽量凑满一批
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    LoginLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                flush(batch);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("登录日志批量写入线程异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 关闭时停止写入线程并将剩余日志全部落库
+     */
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            try {
+                // 等待写入线程完成当前批次，超时则中断
+                writerThread.join(flushIntervalMs * 2 + TimeUnit.SECONDS.toMillis(5));
+                if (writerThread.isAlive()) {
+                    writerThread.interrupt();
+                    writerThread.join(TimeUnit.SECONDS.toMillis(5));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<LoginLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        log.info("登录日志写入器已关闭，关闭时落库 {} 条", remaining.size());
+    }
+
+    private void flush(List<LoginLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // 字典编码在写入线程中完成，请求线程不承担额外开销
+        for (LoginLog loginLog : batch) {
+            loginLogDictionary.encode(loginLog);
+        }
+        try {
+            // 整批在一个事务中写入，失败时整体回滚后再逐条重试，避免重复写入
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind));
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            log.warn("登录日志批量写入失败，改为逐条写入: {}", e.getMessage());
+            flushOneByOne(batch);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushOneByOne(List<LoginLog> batch) {
+        for (LoginLog loginLog : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, loginLog));
+                writtenCounter.increment();
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("登录日志写入失败: userId={}, error={}", loginLog.getUserId(), e.getMessage());
+            }
+        }
+    }
+
+    private void bind(PreparedStatement ps, LoginLog loginLog) throws SQLException {
+        ps.setString(1, loginLog.getUserId());
+        ps.setString(2, loginLog.getIpAddress());
+        ps.setString(3, truncate(loginLog.getDeviceType(), 30));
+        ps.setString(4, loginLog.getStatus());
+        ps.setString(5, truncate(loginLog.getFailureReason(), 255));
+        ps.setTimestamp(6, Timestamp.valueOf(loginLog.getCreatedAt()));
+        ps.setString(7, loginLog.getLoginInfo());
+        ps.setString(8, loginLog.getRequestMethod());
+        setInteger(ps, 9, loginLog.getUserAgentId());
+        setInteger(ps, 10, loginLog.getRefererId());
+        setInteger(ps, 11, loginLog.getUriId());
+        setInteger(ps, 12, loginLog.getFailureReasonId());
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength);
+    }
+}
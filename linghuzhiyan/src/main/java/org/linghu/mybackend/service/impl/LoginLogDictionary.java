@@ -0,0 +1,285 @@
+package org.linghu.mybackend.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.LoginLog;
+import org.linghu.mybackend.domain.LoginLogDictionaryEntry.Kind;
+import org.linghu.mybackend.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录日志字典
+ * 写入时将User-Agent、Referer、URI、失败原因替换为login_log_dictionary中的整数ID，读取时还原；
+ * 正向（值到ID）与反向（ID到值）映射均缓存在有界LRU中，只有新出现的值才访问数据库；
+ * 为控制字典规模，失败原因只编码冒号前的类别，具体信息仍留在日志行中；
+ * 客户端可控的UA、Referer、URI超过长度上限时该行不编码，原样保留，避免改变审计数据；
+ * 每类字典项达到上限后不再新增，新值同样保留原文
+ */
+@Slf4j
+@Component
+public class LoginLogDictionary {
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO login_log_dictionary (kind, value_hash, value) VALUES (?, ?, ?)";
+    private static final String SELECT_ID_SQL =
+            "SELECT id FROM login_log_dictionary WHERE kind = ? AND value_hash = ?";
+    private static final String SELECT_VALUES_SQL =
+            "SELECT id, value FROM login_log_dictionary WHERE id IN (:ids)";
+    private static final String COUNT_BY_KIND_SQL =
+            "SELECT kind, COUNT(*) AS entries FROM login_log_dictionary GROUP BY kind";
+
+    // 失败原因详情与login_log.failure_reason列长度一致
+    private static final int DETAIL_MAX_LENGTH = 255;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader INFO_READER = MAPPER.readerFor(new TypeReference<Map<String, Object>>() { });
+    private static final ObjectWriter INFO_WRITER = MAPPER.writerFor(Map.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${login-log.dictionary.cache-size:20000}")
+    private int cacheSize;
+
+    @Value("${login-log.dictionary.value-max-length:256}")
+    private int valueMaxLength;
+
+    @Value("${login-log.dictionary.max-entries-per-kind:50000}")
+    private int maxEntriesPerKind;
+
+    private LruCache<String, Integer> ids;
+    private LruCache<Integer, String> values;
+    private final Map<Kind, AtomicInteger> entryCounts = new EnumMap<>(Kind.class);
+
+    public LoginLogDictionary(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        ids = new LruCache<>(cacheSize);
+        values = new LruCache<>(cacheSize);
+        ids.bindTo(meterRegistry, "login_log.dictionary.ids");
+        values.bindTo(meterRegistry, "login_log.dictionary.values");
+        for (Kind kind : Kind.values()) {
+            entryCounts.put(kind, new AtomicInteger());
+        }
+        try {
+            jdbcTemplate.query(COUNT_BY_KIND_SQL, rs -> {
+                entryCounts.get(Kind.valueOf(rs.getString("kind"))).set(rs.getInt("entries"));
+            });
+        } catch (Exception e) {
+            log.warn("统计登录日志字典项数量失败: {}", e.getMessage());
+        }
+        for (Kind kind : Kind.values()) {
+            meterRegistry.gauge("login_log.dictionary.entries", List.of(Tag.of("kind", kind.name())),
+                    entryCounts.get(kind));
+        }
+    }
+
+    /**
+     * 将日志中的重复文本替换为字典ID；字典不可用时保留原文
+     */
+    public void encode(LoginLog loginLog) {
+        try {
+            if (loginLog.getLoginInfo() != null) {
+                Map<String, Object> info = INFO_READER.readValue(loginLog.getLoginInfo());
+                String userAgent = asString(info.get("userAgent"));
+                String referer = asString(info.get("referer"));
+                String uri = asString(info.get("uri"));
+                if (tooLong(userAgent) || tooLong(referer) || tooLong(uri)) {
+                    // 超长的值不进入字典，整体保留原文
+                    encodeFailureReason(loginLog);
+                    return;
+                }
+                Integer userAgentId = idOf(Kind.USER_AGENT, userAgent);
+                Integer refererId = idOf(Kind.REFERER, referer);
+                Integer uriId = idOf(Kind.URI, uri);
+                // 任一值因字典已满未能编码时整体保留原文
+                if ((userAgent == null || userAgentId != null) && (referer == null || refererId != null)
+                        && (uri == null || uriId != null)) {
+                    loginLog.setUserAgentId(userAgentId);
+                    loginLog.setRefererId(refererId);
+                    loginLog.setUriId(uriId);
+                    loginLog.setRequestMethod(asString(info.get("method")));
+                    loginLog.setLoginInfo(null);
+                }
+            }
+            encodeFailureReason(loginLog);
+        } catch (Exception e) {
+            log.warn("登录日志字典编码失败，保留原文: {}", e.getMessage());
+        }
+    }
+
+    private void encodeFailureReason(LoginLog loginLog) {
+        String failureReason = loginLog.getFailureReason();
+        if (failureReason != null && !failureReason.isBlank()) {
+            // 只编码类别，冒号后的具体信息仍写在failure_reason列
+            Integer reasonId = idOf(Kind.FAILURE_REASON, LoginStatsAggregator.reasonCategory(failureReason));
+            if (reasonId != null) {
+                loginLog.setFailureReasonId(reasonId);
+                loginLog.setFailureReason(reasonDetail(failureReason));
+            }
+        }
+    }
+
+    private boolean tooLong(String value) {
+        return value != null && value.length() > valueMaxLength;
+    }
+
+    /**
+     * 由字典ID还原日志中的失败原因与请求信息JSON，批量查询缓存未命中的ID
+     */
+    public void decode(Collection<LoginLog> loginLogs) {
+        Set<Integer> needed = new HashSet<>();
+        for (LoginLog loginLog : loginLogs) {
+            addIfPresent(needed, loginLog.getUserAgentId());
+            addIfPresent(needed, loginLog.getRefererId());
+            addIfPresent(needed, loginLog.getUriId());
+            addIfPresent(needed, loginLog.getFailureReasonId());
+        }
+        if (needed.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> resolved = resolve(needed);
+
+        for (LoginLog loginLog : loginLogs) {
+            if (loginLog.getFailureReasonId() != null) {
+                String category = resolved.get(loginLog.getFailureReasonId());
+                String detail = loginLog.getFailureReason();
+                loginLog.setFailureReason(detail == null ? category : category + ": " + detail);
+            }
+            if (loginLog.getLoginInfo() == null
+                    && (loginLog.getUserAgentId() != null || loginLog.getUriId() != null)) {
+                // 与RequestUtils.collectRequestInfo的字段顺序保持一致
+                Map<String, Object> info = new LinkedHashMap<>(8);
+                info.put("userAgent", resolved.get(loginLog.getUserAgentId()));
+                info.put("referer", resolved.get(loginLog.getRefererId()));
+                info.put("method", loginLog.getRequestMethod());
+                info.put("uri", resolved.get(loginLog.getUriId()));
+                try {
+                    loginLog.setLoginInfo(INFO_WRITER.writeValueAsString(info));
+                } catch (Exception e) {
+                    loginLog.setLoginInfo("{}");
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取值对应的字典ID，不存在时插入；该类字典项已达上限时只查询已有值，新值返回null
+     */
+    Integer idOf(Kind kind, String value) {
+        if (value == null) {
+            return null;
+        }
+        String cacheKey = kind.name() + '\u0000' + value;
+        Integer id = ids.get(cacheKey);
+        if (id != null) {
+            return id;
+        }
+        String hash = sha1(value);
+        AtomicInteger entryCount = entryCounts.get(kind);
+        if (entryCount.get() < maxEntriesPerKind) {
+            // 唯一约束保证并发插入同一值时只有一行，随后统一按摘要查询ID
+            if (jdbcTemplate.update(INSERT_SQL, kind.name(), hash, value) > 0) {
+                entryCount.incrementAndGet();
+            }
+        }
+        List<Integer> found = jdbcTemplate.queryForList(SELECT_ID_SQL, Integer.class, kind.name(), hash);
+        if (found.isEmpty()) {
+            return null;
+        }
+        id = found.get(0);
+        ids.put(cacheKey, id);
+        values.put(id, value);
+        return id;
+    }
+
+    private Map<Integer, String> resolve(Set<Integer> needed) {
+        Map<Integer, String> resolved = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : needed) {
+            String value = values.get(id);
+            if (value != null) {
+                resolved.put(id, value);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Map<String, Object>> rows = namedParameterJdbcTemplate.queryForList(
+                    SELECT_VALUES_SQL, new MapSqlParameterSource("ids", missing));
+            for (Map<String, Object> row : rows) {
+                Integer id = ((Number) row.get("id")).intValue();
+                String value = (String) row.get("value");
+                values.put(id, value);
+                resolved.put(id, value);
+            }
+        }
+        return resolved;
+    }
+
+    private static void addIfPresent(Set<Integer> set, Integer id) {
+        if (id != null) {
+            set.add(id);
+        }
+    }
+
+    /**
+     * 失败原因冒号后的具体信息，没有时返回null
+     */
+    private static String reasonDetail(String failureReason) {
+        int colon = failureReason.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        String detail = failureReason.substring(colon + 1).trim();
+        return detail.isEmpty() ? null : truncate(detail, DETAIL_MAX_LENGTH);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static String sha1(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            return HexFormat.of().formatHex(md.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.linghu.mybackend.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 登录日志保留清理任务
+ * 通过created_at索引分批删除过期日志，每批一个短事务（自动提交），避免一次性加载实体或长时间持有锁；
+ * 表已按月分区时可先直接删除整月过期分区
+ */
+@Slf4j
+@Component
+public class LoginLogRetentionJob {
+
+    private static final String DELETE_BATCH_SQL = "DELETE FROM login_logs WHERE created_at < ? LIMIT ?";
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT PARTITION_NAME, PARTITION_DESCRIPTION "
+            + "FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'login_logs' AND PARTITION_NAME IS NOT NULL "
+            + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter BOUNDARY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${login-log.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${login-log.retention.days:180}")
+    private int retentionDays;
+
+    @Value("${login-log.retention.batch-size:5000}")
+    private int batchSize;
+
+    // 批次之间的停顿，给主从复制和在线业务留出余量
+    @Value("${login-log.retention.pause-ms:50}")
+    private long pauseMs;
+
+    // login_logs已按月分区（见db/partition/login_logs_monthly_partitions.sql）时启用分区维护
+    @Value("${login-log.retention.partitioned:false}")
+    private boolean partitioned;
+
+    public LoginLogRetentionJob(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 定时执行保留清理
+     */
+    @Scheduled(cron = "${login-log.retention.cron:0 30 3 * * ?}")
+    public void runScheduled() {
+        if (enabled) {
+            purge(retentionDays);
+        }
+    }
+
+    /**
+     * 删除早于指定天数的登录日志
+     *
+     * @param days 保留天数
+     * @return 删除的记录数（删除分区时按分区内行数统计）
+     */
+    public long purge(int days) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("登录日志清理正在进行中，跳过本次请求");
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(days);
+            long start = System.nanoTime();
+            long deleted = 0;
+            if (partitioned) {
+                deleted += dropExpiredPartitions(cutoff);
+                ensureNextPartition();
+            }
+            deleted += deleteInBatches(cutoff);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("登录日志清理完成: cutoff={}, 删除 {} 条, 耗时 {} ms, 吞吐 {} 条/秒",
+                    cutoff, deleted, elapsedMillis, throughput(deleted, elapsedMillis));
+            return deleted;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long deleteInBatches(LocalDateTime cutoff) {
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        long start = System.nanoTime();
+        long total = 0;
+        int batches = 0;
+        while (true) {
+            int affected = jdbcTemplate.update(DELETE_BATCH_SQL, cutoffTimestamp, batchSize);
+            total += affected;
+            batches++;
+            if (batches % 20 == 0) {
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                log.info("登录日志清理进度: 已完成 {} 批, 删除 {} 条, 吞吐 {} 条/秒",
+                        batches, total, throughput(total, elapsedMillis));
+            }
+            if (affected < batchSize) {
+                return total;
+            }
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("登录日志清理被中断，已删除 {} 条", total);
+                    return total;
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除上界不晚于截止时间的月分区，整月数据一次性移除
+     */
+    private long dropExpiredPartitions(LocalDateTime cutoff) {
+        long dropped = 0;
+        for (Map<String, Object> partition : jdbcTemplate.queryForList(LIST_PARTITIONS_SQL)) {
+            String name = (String) partition.get("PARTITION_NAME");
+            LocalDateTime upperBound = parseBoundary((String) partition.get("PARTITION_DESCRIPTION"));
+            if (upperBound == null || upperBound.isAfter(cutoff)) {
+                continue;
+            }
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM login_logs PARTITION (" + name + ")", Long.class);
+            jdbcTemplate.execute("ALTER TABLE login_logs DROP PARTITION " + name);
+            dropped += rows == null ? 0 : rows;
+            log.info("已删除过期登录日志分区 {}（上界 {}），{} 条", name, upperBound, rows);
+        }
+        return dropped;
+    }
+
+    /**
+     * 确保下个月的分区已存在：从pmax中拆分出缺失的月分区
+     */
+    private void ensureNextPartition() {
+        List<String> names = jdbcTemplate.queryForList(LIST_PARTITIONS_SQL).stream()
+                .map(partition -> (String) partition.get("PARTITION_NAME"))
+                .toList();
+        if (!names.contains("pmax")) {
+            return;
+        }
+        YearMonth nextMonth = YearMonth.now().plusMonths(1);
+        String name = nextMonth.format(PARTITION_NAME_FORMAT);
+        if (names.contains(name)) {
+            return;
+        }
+        String boundary = nextMonth.plusMonths(1).atDay(1).atStartOfDay().format(BOUNDARY_FORMAT);
+        jdbcTemplate.execute("ALTER TABLE login_logs REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION " + name + " VALUES LESS THAN ('" + boundary + "'), "
+                + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        log.info("已创建登录日志分区 {}（上界 {}）", name, boundary);
+    }
+
+    // 分区上界形如 '2026-02-01 00:00:00'，MAXVALUE返回null
+    private static LocalDateTime parseBoundary(String description) {
+        if (description == null || "MAXVALUE".equalsIgnoreCase(description)) {
+            return null;
+        }
+        String value = description.replace("'", "").trim();
+        if (value.length() == 10) {
+            value = value + " 00:00:00";
+        }
+        return LocalDateTime.parse(value, BOUNDARY_FORMAT);
+    }
+
+    private static long throughput(long rows, long elapsedMillis) {
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+}
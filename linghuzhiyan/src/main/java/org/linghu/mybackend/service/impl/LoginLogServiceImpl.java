@@ -1,18 +1,26 @@
 package org.linghu.mybackend.service.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.linghu.mybackend.constants.SystemConstants;
 import org.linghu.mybackend.domain.LoginLog;
+import org.linghu.mybackend.domain.LoginStatsRollup.Granularity;
+import org.linghu.mybackend.dto.LoginStatsDTO;
 import org.linghu.mybackend.repository.LoginLogRepository;
+import org.linghu.mybackend.repository.LoginStatsRollupRepository;
 import org.linghu.mybackend.service.LoginLogService;
+import org.linghu.mybackend.service.UserDomainService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 登录日志服务实现类
@@ -22,12 +30,27 @@ import java.util.Map;
 public class LoginLogServiceImpl implements LoginLogService {
 
     private final LoginLogRepository loginLogRepository;
+    private final LoginLogBatchWriter loginLogBatchWriter;
+    private final LoginFailureTracker loginFailureTracker;
+    private final SuspiciousIpDetector suspiciousIpDetector;
+    private final LoginLogRetentionJob loginLogRetentionJob;
+    private final LoginLogDictionary loginLogDictionary;
+    private final LoginStatsAggregator loginStatsAggregator;
+    private final LoginStatsRollupRepository loginStatsRollupRepository;
+    private final UserDomainService userDomainService;
+
+    // 是否异步批量写入登录日志；异步模式下返回的日志对象不包含数据库ID
+    @Value("${login-log.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    private static final List<String> PRIMARY_ROLE_ORDER = List.of(
+            SystemConstants.ROLE_ADMIN, SystemConstants.ROLE_TEACHER,
+            SystemConstants.ROLE_ASSISTANT, SystemConstants.ROLE_STUDENT);
 
     /**
      * 记录登录成功的日志
      */
     @Override
-    @Transactional
     public LoginLog logSuccessfulLogin(String userId, String ipAddress, String deviceType, String loginInfo) {
         LoginLog loginLog = LoginLog.builder()
                 .userId(userId)
@@ -38,14 +61,14 @@ public class LoginLogServiceImpl implements LoginLogService {
                 .loginInfo(loginInfo)
                 .build();
         
-        return loginLogRepository.save(loginLog);
+        loginStatsAggregator.record("SUCCESS", deviceType, primaryRole(userId), null, System.currentTimeMillis());
+        return save(loginLog);
     }
 
     /**
      * 记录登录失败的日志
      */
     @Override
-    @Transactional
     public LoginLog logFailedLogin(String userId, String ipAddress, String deviceType, String failureReason, String loginInfo) {
         LoginLog loginLog = LoginLog.builder()
                 .userId(userId)
@@ -57,7 +80,11 @@ public class LoginLogServiceImpl implements LoginLogService {
                 .loginInfo(loginInfo)
                 .build();
         
-        return loginLogRepository.save(loginLog);
+        long now = System.currentTimeMillis();
+        loginFailureTracker.recordFailure(userId, ipAddress, now);
+        suspiciousIpDetector.recordFailure(ipAddress, now);
+        loginStatsAggregator.record("FAILED", deviceType, null, failureReason, now);
+        return save(loginLog);
     }
 
     /**
@@ -66,7 +93,9 @@ public class LoginLogServiceImpl implements LoginLogService {
     @Override
     @Transactional(readOnly = true)
     public List<LoginLog> getUserLoginHistory(String userId) {
-        return loginLogRepository.findByUserId(userId);
+        List<LoginLog> logs = loginLogRepository.findByUserId(userId);
+        loginLogDictionary.decode(logs);
+        return logs;
     }
     
     /**
@@ -75,26 +104,48 @@ public class LoginLogServiceImpl implements LoginLogService {
     @Override
     @Transactional(readOnly = true)
     public Page<LoginLog> getUserLoginHistory(String userId, Pageable pageable) {
-        return loginLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        Page<LoginLog> page = loginLogRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+        loginLogDictionary.decode(page.getContent());
+        return page;
     }
     
     /**
      * 检查用户是否被锁定（短时间内多次登录失败）
+     * 优先由内存滑动窗口判断，超出窗口覆盖范围时才查询数据库
      */
     @Override
-    @Transactional(readOnly = true)
     public boolean isUserLocked(String userId, int lockThreshold, int minutes) {
+        if (loginFailureTracker.covers(minutes)) {
+            return loginFailureTracker.countUserFailures(userId, minutes) >= lockThreshold;
+        }
         LocalDateTime timeAgo = LocalDateTime.now().minusMinutes(minutes);
         long failedAttempts = loginLogRepository.countRecentFailedAttempts(userId, timeAgo);
         return failedAttempts >= lockThreshold;
     }
     
+    /**
+     * 检查IP是否被锁定（短时间内多次登录失败）
+     */
+    @Override
+    public boolean isIpLocked(String ipAddress, int lockThreshold, int minutes) {
+        if (loginFailureTracker.covers(minutes)) {
+            return loginFailureTracker.countIpFailures(ipAddress, minutes) >= lockThreshold;
+        }
+        LocalDateTime timeAgo = LocalDateTime.now().minusMinutes(minutes);
+        List<Object[]> suspiciousIPs = loginLogRepository.findSuspiciousIPs(timeAgo, lockThreshold);
+        return suspiciousIPs.stream().anyMatch(row -> ipAddress.equals(row[0]));
+    }
+    
     /**
      * 获取可疑的登录活动
+     * 时间范围在流式检测窗口内时直接返回检测器的估计结果，否则回退为数据库聚合
      */
     @Override
     @Transactional(readOnly = true)
     public Map<String, Long> getSuspiciousLoginActivities(int threshold, int minutes) {
+        if (suspiciousIpDetector.covers(minutes)) {
+            return suspiciousIpDetector.topOffenders(threshold, minutes);
+        }
         LocalDateTime timeAgo = LocalDateTime.now().minusMinutes(minutes);
         List<Object[]> suspiciousIPs = loginLogRepository.findSuspiciousIPs(timeAgo, threshold);
         
@@ -108,18 +159,73 @@ public class LoginLogServiceImpl implements LoginLogService {
         return result;
     }
     
+    /**
+     * 估计IP在最近若干分钟内的登录失败次数
+     */
+    @Override
+    public long estimateIpFailures(String ipAddress, int minutes) {
+        if (suspiciousIpDetector.covers(minutes)) {
+            return suspiciousIpDetector.estimate(ipAddress, minutes);
+        }
+        LocalDateTime timeAgo = LocalDateTime.now().minusMinutes(minutes);
+        return loginLogRepository.countRecentFailedAttemptsByIpAddress(ipAddress, timeAgo);
+    }
+    
     /**
      * 清理旧的登录日志
+     * 由保留清理任务分批删除，每批独立提交，不在此处开启长事务
      */
     @Override
-    @Transactional
     public long cleanupOldLogs(int days) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(days);
-        List<LoginLog> oldLogs = loginLogRepository.findByCreatedAtBetween(
-            LocalDateTime.MIN, cutoffDate);
-        
-        long count = oldLogs.size();
-        loginLogRepository.deleteAll(oldLogs);
-        return count;
+        return loginLogRetentionJob.purge(days);
+    }
+
+    /**
+     * 查询登录统计汇总
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<LoginStatsDTO> getLoginStats(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(SystemConstants.DATETIME_FORMAT);
+        return loginStatsRollupRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                        granularity, from, to)
+                .stream()
+                .map(rollup -> LoginStatsDTO.builder()
+                        .bucketStart(rollup.getBucketStart().format(formatter))
+                        .status(rollup.getStatus())
+                        .deviceType(rollup.getDeviceType())
+                        .role(rollup.getRole())
+                        .failureReason(rollup.getFailureReason())
+                        .count(rollup.getCount())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * 用户的主要角色（按管理员、教师、助教、学生的优先级），用于登录统计
+     */
+    private String primaryRole(String userId) {
+        Set<String> roles = userDomainService.getUserRoleIds(userId);
+        for (String role : PRIMARY_ROLE_ORDER) {
+            if (roles.contains(role)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 保存登录日志：异步模式下交给批量写入器，否则同步落库
+     */
+    private LoginLog save(LoginLog loginLog) {
+        if (asyncEnabled) {
+            loginLogBatchWriter.submit(loginLog);
+            return loginLog;
+        }
+        loginLogDictionary.encode(loginLog);
+        LoginLog saved = loginLogRepository.save(loginLog);
+        loginLogDictionary.decode(List.of(saved));
+        return saved;
     }
 }
@@ -0,0 +1,161 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.LoginStatsRollup.Granularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 登录统计增量汇总器
+ * 登录事件先累加到内存中的分钟计数，定时将已结束的分钟合并为小时和天的增量，
+ * 以 INSERT ... ON DUPLICATE KEY UPDATE 累加到login_stats_rollup
+ */
+@Slf4j
+@Component
+public class LoginStatsAggregator {
+
+    private static final String UPSERT_SQL = "INSERT INTO login_stats_rollup "
+            + "(granularity, bucket_start, status, device_type, role, failure_reason, count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE count = count + VALUES(count)";
+
+    private static final String NONE = "-";
+    private static final int DIMENSION_MAX_LENGTH = 20;
+    private static final int REASON_MAX_LENGTH = 64;
+
+    private record MinuteKey(long minute, String status, String deviceType, String role, String failureReason) {
+    }
+
+    private record BucketKey(Granularity granularity, LocalDateTime bucketStart, String status,
+                             String deviceType, String role, String failureReason) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<MinuteKey, Long> pending = new ConcurrentHashMap<>();
+
+    public LoginStatsAggregator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("login_stats.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * 记录一次登录事件
+     *
+     * @param status 登录状态
+     * @param deviceType 设备描述（只取第一段设备大类）
+     * @param role 用户主要角色，未知时为null
+     * @param failureReason 失败原因，成功时为null
+     * @param timestampMillis 事件时间
+     */
+    public void record(String status, String deviceType, String role, String failureReason, long timestampMillis) {
+        MinuteKey key = new MinuteKey(timestampMillis / 60_000L, status,
+                deviceClass(deviceType), dimension(role, DIMENSION_MAX_LENGTH), reasonCategory(failureReason));
+        pending.merge(key, 1L, Long::sum);
+    }
+
+    /**
+     * 将已结束分钟的计数写入汇总表
+     */
+    @Scheduled(fixedDelayString = "${login-log.rollup.flush-interval-ms:60000}")
+    public void flush() {
+        flushBefore(System.currentTimeMillis() / 60_000L);
+    }
+
+    /**
+     * 关闭时写入全部计数，包括尚未结束的分钟
+     */
+    @PreDestroy
+    void shutdown() {
+        flushBefore(Long.MAX_VALUE);
+    }
+
+    private void flushBefore(long minuteExclusive) {
+        Map<BucketKey, Long> hourDeltas = new HashMap<>();
+        for (MinuteKey key : new ArrayList<>(pending.keySet())) {
+            if (key.minute() >= minuteExclusive) {
+                continue;
+            }
+            Long count = pending.remove(key);
+            if (count == null) {
+                continue;
+            }
+            LocalDateTime hour = LocalDateTime.ofInstant(Instant.ofEpochMilli(key.minute() * 60_000L),
+                    ZoneId.systemDefault()).truncatedTo(ChronoUnit.HOURS);
+            hourDeltas.merge(new BucketKey(Granularity.HOUR, hour, key.status(), key.deviceType(),
+                    key.role(), key.failureReason()), count, Long::sum);
+        }
+        if (hourDeltas.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, Long> deltas = new HashMap<>(hourDeltas);
+        hourDeltas.forEach((key, count) -> deltas.merge(new BucketKey(Granularity.DAY,
+                key.bucketStart().truncatedTo(ChronoUnit.DAYS), key.status(), key.deviceType(),
+                key.role(), key.failureReason()), count, Long::sum));
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, count) -> rows.add(new Object[]{
+                key.granularity().name(), Timestamp.valueOf(key.bucketStart()), key.status(),
+                key.deviceType(), key.role(), key.failureReason(), count}));
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows));
+        } catch (Exception e) {
+            // 写入失败时把小时增量放回内存，下次刷新时重试（以小时起点作为分钟键）
+            log.warn("登录统计汇总写入失败，将在下次刷新时重试: {}", e.getMessage());
+            hourDeltas.forEach((key, count) -> pending.merge(new MinuteKey(
+                    key.bucketStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / 60_000L,
+                    key.status(), key.deviceType(), key.role(), key.failureReason()), count, Long::sum));
+        }
+    }
+
+    private static String deviceClass(String deviceType) {
+        if (deviceType == null || deviceType.isEmpty()) {
+            return "unknown";
+        }
+        int slash = deviceType.indexOf('/');
+        return dimension(slash < 0 ? deviceType : deviceType.substring(0, slash), DIMENSION_MAX_LENGTH);
+    }
+
+    // 失败原因常带有动态后缀（如"登录失败: 具体异常"），只保留冒号前的类别以控制基数
+    static String reasonCategory(String failureReason) {
+        if (failureReason == null || failureReason.isEmpty()) {
+            return NONE;
+        }
+        int colon = failureReason.indexOf(':');
+        return dimension((colon < 0 ? failureReason : failureReason.substring(0, colon)).trim(), REASON_MAX_LENGTH);
+    }
+
+    private static String dimension(String value, int maxLength) {
+        if (value == null || value.isEmpty()) {
+            return NONE;
+        }
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
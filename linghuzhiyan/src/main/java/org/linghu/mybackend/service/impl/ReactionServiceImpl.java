@@ -0,0 +1,85 @@
+package org.linghu.mybackend.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.linghu.mybackend.domain.Reaction;
+import org.linghu.mybackend.domain.Reaction.TargetType;
+import org.linghu.mybackend.domain.ReactionType;
+import org.linghu.mybackend.service.ReactionService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 互动服务实现
+ * 切换只依赖单条删除或插入的原子性，并发的重复插入由唯一索引拒绝，不读取被互动对象
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactionServiceImpl implements ReactionService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public int toggle(TargetType targetType, String targetId, String userId, ReactionType type) {
+        Query existing = Query.query(Criteria.where("targetId").is(targetId)
+                .and("userId").is(userId)
+                .and("type").is(type));
+        if (mongoTemplate.remove(existing, Reaction.class).getDeletedCount() > 0) {
+            return -1;
+        }
+        try {
+            mongoTemplate.insert(Reaction.builder()
+                    .targetType(targetType)
+                    .targetId(targetId)
+                    .userId(userId)
+                    .type(type)
+                    .createTime(LocalDateTime.now())
+                    .build());
+            return 1;
+        } catch (DuplicateKeyException e) {
+            // 同一用户的并发请求已插入，计数已由那次请求增加
+            return 0;
+        }
+    }
+
+    @Override
+    public Map<String, Set<ReactionType>> findReactions(Collection<String> targetIds, String userId) {
+        Map<String, Set<ReactionType>> result = new HashMap<>();
+        if (userId == null || targetIds.isEmpty()) {
+            return result;
+        }
+        Query query = Query.query(Criteria.where("targetId").in(targetIds).and("userId").is(userId));
+        query.fields().include("targetId", "type");
+        for (Reaction reaction : mongoTemplate.find(query, Reaction.class)) {
+            result.computeIfAbsent(reaction.getTargetId(), id -> EnumSet.noneOf(ReactionType.class))
+                    .add(reaction.getType());
+        }
+        return result;
+    }
+
+    /**
+     * 汇总各类型互动计数，点赞数取自likeCount
+     */
+    static Map<String, Long> countsOf(Number likeCount, Map<String, Long> otherCounts) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put(ReactionType.LIKE.name(), likeCount != null ? likeCount.longValue() : 0L);
+        if (otherCounts != null) {
+            otherCounts.forEach((type, count) -> {
+                if (count != null && count > 0) {
+                    counts.put(type, count);
+                }
+            });
+        }
+        return counts;
+    }
+}
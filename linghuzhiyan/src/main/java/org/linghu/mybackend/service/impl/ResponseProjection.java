@@ -0,0 +1,133 @@
+package org.linghu.mybackend.service.impl;
+
+import org.bson.Document;
+import org.linghu.mybackend.exception.InvalidFieldsException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 列表接口的返回字段投影
+ * 根据视图（summary/full）或fields参数生成Mongo投影，使未使用的字段不从磁盘读取、不反序列化、不返回；
+ * isLiked与myReactions由reactions集合批量查询，不对应文档字段；
+ * 指定fields时未选择的字段在响应中保持为null，不填充默认值或计算值
+ */
+final class ResponseProjection {
+
+    static final String VIEW_SUMMARY = "summary";
+    static final String VIEW_FULL = "full";
+
+    // 不对应文档字段的响应字段
+    private static final Set<String> COMPUTED_FIELDS = Set.of("id", "isLiked", "myReactions");
+    private static final String REACTION_COUNTS = "reactionCounts";
+    private static final String LIKE_COUNT = "likeCount";
+
+    private final Set<String> selectableFields;
+    private final List<String> summaryExcludedFields;
+
+    /**
+     * @param selectableFields 响应DTO中可选择的字段名（除计算字段外与文档字段同名）
+     * @param summaryExcludedFields summary视图中不读取的大字段
+     */
+    ResponseProjection(Set<String> selectableFields, List<String> summaryExcludedFields) {
+        this.selectableFields = selectableFields;
+        this.summaryExcludedFields = summaryExcludedFields;
+    }
+
+    /**
+     * 生成投影，返回null表示读取完整文档
+     *
+     * @param view 视图，summary或full，为空时按summary处理
+     * @param fields 逗号分隔的字段列表，非空时优先于视图
+     * @param requiredFields 服务端处理需要的字段（如游标的排序键），无论选择如何都会读取
+     */
+    Document build(String view, String fields, Collection<String> requiredFields) {
+        if (fields != null && !fields.isBlank()) {
+            return sparse(fields, requiredFields);
+        }
+        if (view == null || view.isEmpty() || VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            Document projection = new Document();
+            summaryExcludedFields.forEach(field -> projection.append(field, 0));
+            return projection;
+        }
+        if (VIEW_FULL.equalsIgnoreCase(view)) {
+            return null;
+        }
+        throw new InvalidFieldsException("无效的视图: " + view);
+    }
+
+    /**
+     * 解析fields参数中选择的字段
+     *
+     * @return 选择的字段，未指定fields时返回null表示按视图返回全部字段
+     */
+    static Set<String> selected(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 字段是否需要出现在响应中
+     */
+    static boolean includes(Set<String> selected, String field) {
+        return selected == null || selected.contains(field);
+    }
+
+    /**
+     * 清空响应DTO中未选择的字段，使投影外字段的实体默认值（如0、空列表）不出现在响应中；id始终保留
+     */
+    <T> T retain(T dto, Set<String> selected) {
+        if (selected == null) {
+            return dto;
+        }
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(dto);
+        for (String field : selectableFields) {
+            if (!"id".equals(field) && !selected.contains(field)) {
+                wrapper.setPropertyValue(field, null);
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * 将投影应用到查询，保留原有过滤条件
+     */
+    static Query apply(Query query, Document projection) {
+        return projection == null ? query : new BasicQuery(query.getQueryObject(), projection);
+    }
+
+    private Document sparse(String fields, Collection<String> requiredFields) {
+        Document projection = new Document("_id", 1);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!selectableFields.contains(name)) {
+                throw new InvalidFieldsException("无效的返回字段: " + name);
+            }
+            if (COMPUTED_FIELDS.contains(name)) {
+                continue;
+            }
+            projection.append(name, 1);
+            if (REACTION_COUNTS.equals(name)) {
+                // 响应中的互动计数包含点赞数
+                projection.putIfAbsent(LIKE_COUNT, 1);
+            }
+        }
+        requiredFields.forEach(field -> projection.putIfAbsent(field, 1));
+        return projection;
+    }
+}
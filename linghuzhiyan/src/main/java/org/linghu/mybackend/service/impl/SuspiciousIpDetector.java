@@ -0,0 +1,165 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.linghu.mybackend.utils.CountMinSketch;
+import org.linghu.mybackend.utils.SpaceSavingTopK;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 可疑IP流式检测器
+ * 由登录失败事件驱动，按分钟划分轮转子窗口，每个子窗口维护一个Count-Min Sketch（频次估计）
+ * 和一个Space-Saving候选集（高频IP），查询时合并窗口内的子窗口，无需对login_logs做GROUP BY
+ */
+@Component
+public class SuspiciousIpDetector {
+
+    private static final long SLOT_MILLIS = 60_000L;
+
+    private final MeterRegistry meterRegistry;
+
+    // 子窗口数量（分钟），即可查询的最大时间范围
+    @Value("${login-log.suspicious-ip.window-minutes:60}")
+    private int windowMinutes;
+
+    @Value("${login-log.suspicious-ip.sketch-width:1024}")
+    private int sketchWidth;
+
+    @Value("${login-log.suspicious-ip.sketch-depth:4}")
+    private int sketchDepth;
+
+    // 每个子窗口跟踪的高频IP候选数量
+    @Value("${login-log.suspicious-ip.top-k:100}")
+    private int topK;
+
+    private Slot[] slots;
+    private Counter recordedCounter;
+
+    public SuspiciousIpDetector(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        slots = new Slot[windowMinutes];
+        for (int i = 0; i < windowMinutes; i++) {
+            slots[i] = new Slot(new CountMinSketch(sketchWidth, sketchDepth), new SpaceSavingTopK(topK));
+        }
+        recordedCounter = meterRegistry.counter("login_log.suspicious_ip.recorded");
+    }
+
+    /**
+     * 记录一次来自指定IP的登录失败
+     */
+    public void recordFailure(String ipAddress, long timestampMillis) {
+        if (ipAddress == null) {
+            return;
+        }
+        long minute = timestampMillis / SLOT_MILLIS;
+        Slot slot = slots[(int) (minute % windowMinutes)];
+        slot.add(minute, ipAddress);
+        recordedCounter.increment();
+    }
+
+    /**
+     * 是否能回答指定时长的查询
+     */
+    public boolean covers(int minutes) {
+        return minutes > 0 && minutes <= windowMinutes;
+    }
+
+    /**
+     * 估计IP在最近若干分钟内的失败次数（只会偏大）
+     */
+    public long estimate(String ipAddress, int minutes) {
+        long total = 0;
+        for (Slot slot : liveSlots(System.currentTimeMillis(), minutes)) {
+            total += slot.sketch.estimate(ipAddress);
+        }
+        return total;
+    }
+
+    /**
+     * 返回最近若干分钟内失败次数估计值达到阈值的IP，按次数降序
+     */
+    public Map<String, Long> topOffenders(long threshold, int minutes) {
+        List<Slot> live = liveSlots(System.currentTimeMillis(), minutes);
+        Set<String> candidates = new HashSet<>();
+        for (Slot slot : live) {
+            for (Map.Entry<String, Long> entry : slot.topK.top()) {
+                candidates.add(entry.getKey());
+            }
+        }
+
+        List<Map.Entry<String, Long>> estimates = new ArrayList<>();
+        for (String ip : candidates) {
+            long total = 0;
+            for (Slot slot : live) {
+                total += slot.sketch.estimate(ip);
+            }
+            if (total >= threshold) {
+                estimates.add(Map.entry(ip, total));
+            }
+        }
+        estimates.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : estimates) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private List<Slot> liveSlots(long nowMillis, int minutes) {
+        long nowMinute = nowMillis / SLOT_MILLIS;
+        long oldestMinute = nowMinute - Math.min(minutes, windowMinutes) + 1;
+        List<Slot> live = new ArrayList<>();
+        for (Slot slot : slots) {
+            long minute = slot.minute;
+            if (minute >= oldestMinute && minute <= nowMinute) {
+                live.add(slot);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * 一分钟的子窗口，跨入新的分钟时整体重置
+     */
+    private static final class Slot {
+        private final CountMinSketch sketch;
+        private final SpaceSavingTopK topK;
+        private volatile long minute = -1;
+
+        private Slot(CountMinSketch sketch, SpaceSavingTopK topK) {
+            this.sketch = sketch;
+            this.topK = topK;
+        }
+
+        void add(long eventMinute, String key) {
+            if (minute != eventMinute) {
+                synchronized (this) {
+                    if (minute > eventMinute) {
+                        return; // 事件所属分钟已滑出窗口
+                    }
+                    if (minute < eventMinute) {
+                        sketch.clear();
+                        topK.clear();
+                        minute = eventMinute;
+                    }
+                }
+            }
+            sketch.add(key);
+            topK.add(key);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.RevokedToken;
+import org.linghu.mybackend.repository.RevokedTokenRepository;
+import org.linghu.mybackend.service.TokenRevocationService;
+import org.linghu.mybackend.utils.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 令牌注销服务实现类
+ * 布隆过滤器在前，绝大多数未注销令牌只需一次位数组判断；
+ * 命中时再查内存中的精确集合（jti到过期时间），数据库只用于启动重建和多实例同步
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    // 布隆过滤器预期容量与误判率，实际注销数超过容量一半时按两倍重建
+    @Value("${jwt.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastSyncedAt;
+
+    private Counter negativeCounter;
+    private Counter revokedCounter;
+    private Counter falsePositiveCounter;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        negativeCounter = meterRegistry.counter("jwt.revocation.checks", "result", "negative");
+        revokedCounter = meterRegistry.counter("jwt.revocation.checks", "result", "revoked");
+        falsePositiveCounter = meterRegistry.counter("jwt.revocation.checks", "result", "false_positive");
+        Gauge.builder("jwt.revocation.size", revoked, Map::size).register(meterRegistry);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), toEpochMillis(token.getExpiresAt()));
+        }
+        lastSyncedAt = now;
+        rebuildBloomFilter();
+        log.info("已加载 {} 条未过期的令牌注销记录", revoked.size());
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String jti, String username, Date expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .username(username)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        addLocal(jti, expiresAt.getTime());
+    }
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (!bloomFilter.mightContain(jti)) {
+            negativeCounter.increment();
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            revokedCounter.increment();
+            return true;
+        }
+        falsePositiveCounter.increment();
+        return false;
+    }
+
+    /**
+     * 定期同步其他实例新增的注销记录，并清理已过期的记录
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    @Transactional
+    public void syncAndPurge() {
+        LocalDateTime now = LocalDateTime.now();
+        // 向前多取一段时间，容忍实例间时钟偏差与未提交事务
+        List<RevokedToken> added = revokedTokenRepository
+                .findByRevokedAtAfterAndExpiresAtAfter(lastSyncedAt.minusMinutes(1), now);
+        for (RevokedToken token : added) {
+            addLocal(token.getJti(), toEpochMillis(token.getExpiresAt()));
+        }
+        lastSyncedAt = now;
+
+        long nowMillis = System.currentTimeMillis();
+        boolean removed = revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+        revokedTokenRepository.deleteExpired(now);
+        if (removed) {
+            // 布隆过滤器不支持删除，清理过期记录后重建以恢复误判率
+            rebuildBloomFilter();
+        }
+    }
+
+    private synchronized void addLocal(String jti, long expiresAtMillis) {
+        revoked.put(jti, expiresAtMillis);
+        if (revoked.size() > expectedInsertions / 2) {
+            expectedInsertions *= 2;
+            rebuildBloomFilter();
+        } else {
+            bloomFilter.put(jti);
+        }
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        for (String jti : revoked.keySet()) {
+            filter.put(jti);
+        }
+        bloomFilter = filter;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
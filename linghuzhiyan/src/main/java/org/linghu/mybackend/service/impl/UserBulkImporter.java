@@ -0,0 +1,445 @@
+package org.linghu.mybackend.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.dto.UserImportResultDTO;
+import org.linghu.mybackend.dto.UserImportResultDTO.RowError;
+import org.linghu.mybackend.exception.UserException;
+import org.linghu.mybackend.utils.JsonUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 用户批量导入器
+ * 逐行流式读取CSV或NDJSON名单，按块处理：每块一次集合查询检查用户名与邮箱冲突，
+ * 在有界线程池中并行哈希密码，再以JDBC批量插入users与user_roles；
+ * 每一行的错误单独记录，不影响其他行
+ */
+@Slf4j
+@Component
+public class UserBulkImporter {
+
+    /**
+     * 名单格式
+     */
+    public enum Format {
+        /** 首行为表头的CSV，必需列：username、email、password */
+        CSV,
+        /** 每行一个JSON对象 */
+        NDJSON
+    }
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users "
+            + "(id, username, email, password, profile, created_at, updated_at, is_deleted, token_version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)";
+    private static final String INSERT_ROLE_SQL =
+            "INSERT INTO user_roles (user_id, role_id, created_at) VALUES (?, ?, ?)";
+    private static final String EXISTING_SQL =
+            "SELECT username, email FROM users WHERE username IN (:usernames) OR email IN (:emails)";
+
+    // 与UserRegistrationDTO的校验规则保持一致
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("^[a-zA-Z0-9_]{4,20}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final int PASSWORD_MIN_LENGTH = 6;
+    private static final int PASSWORD_MAX_LENGTH = 20;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final ObjectReader ROW_READER =
+            new ObjectMapper().readerFor(new TypeReference<Map<String, Object>>() { });
+
+    private record Row(long line, String username, String email, String password,
+                       String realName, String school, String major) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UsernameAutocompleteIndex usernameAutocompleteIndex;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.import.chunk-size:500}")
+    private int chunkSize;
+
+    // 并行哈希线程数，0表示CPU核数的一半；哈希本身仍经过共享的有界密码编码器
+    @Value("${user.import.hash-threads:0}")
+    private int hashThreads;
+
+    private ExecutorService hashExecutor;
+    private Counter importedCounter;
+    private Counter failedCounter;
+
+    public UserBulkImporter(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                            PlatformTransactionManager transactionManager, PasswordEncoder passwordEncoder,
+                            UsernameAutocompleteIndex usernameAutocompleteIndex, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.usernameAutocompleteIndex = usernameAutocompleteIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        hashExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        importedCounter = meterRegistry.counter("user.import.rows", "result", "imported");
+        failedCounter = meterRegistry.counter("user.import.rows", "result", "failed");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    /**
+     * 导入名单，所有用户分配同一角色
+     *
+     * @param in 名单输入流（UTF-8）
+     * @param format 名单格式
+     * @param roleId 分配的角色ID
+     * @return 导入结果
+     */
+    public UserImportResultDTO importUsers(InputStream in, Format format, String roleId) throws IOException {
+        ImportState state = new ImportState();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> header = null;
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && header == null) {
+                header = parseHeader(line);
+                continue;
+            }
+            state.total++;
+            Row row;
+            try {
+                row = format == Format.CSV ? parseCsvRow(lineNumber, line, header) : parseJsonRow(lineNumber, line);
+            } catch (IllegalArgumentException e) {
+                state.fail(lineNumber, null, e.getMessage());
+                continue;
+            }
+            String error = validate(row, state);
+            if (error != null) {
+                state.fail(lineNumber, row.username(), error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                processChunk(chunk, roleId, state);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, roleId, state);
+        }
+
+        log.info("批量导入用户完成: total={}, imported={}, failed={}", state.total, state.imported, state.failed);
+        return UserImportResultDTO.builder()
+                .total(state.total)
+                .imported(state.imported)
+                .failed(state.failed)
+                .errors(state.errors)
+                .build();
+    }
+
+    private void processChunk(List<Row> chunk, String roleId, ImportState state) {
+        // 一次集合查询找出与库中已有用户冲突的用户名和邮箱
+        List<Row> candidates = excludeExisting(chunk, state);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 并行哈希
+        List<Future<String>> futures = new ArrayList<>(candidates.size());
+        for (Row row : candidates) {
+            futures.add(hashExecutor.submit(() -> passwordEncoder.encode(row.password())));
+        }
+        Map<Row, String> hashed = new LinkedHashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Row row = candidates.get(i);
+            try {
+                hashed.put(row, futures.get(i).get());
+            } catch (ExecutionException e) {
+                state.fail(row.line(), row.username(), "密码加密失败: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state.fail(row.line(), row.username(), "导入已中断");
+            }
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> userArgs = new ArrayList<>(hashed.size());
+        List<Object[]> roleArgs = new ArrayList<>(hashed.size());
+        hashed.forEach((row, hash) -> {
+            String id = UUID.randomUUID().toString();
+            userArgs.add(new Object[]{id, row.username(), row.email(), hash, profileOf(row), now, now});
+            roleArgs.add(new Object[]{id, roleId, now});
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER_SQL, userArgs);
+                jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, roleArgs);
+            });
+            hashed.keySet().forEach(row -> state.succeed(row));
+        } catch (DataAccessException e) {
+            // 预检查之后仍可能与并发注册冲突，此时逐行插入以定位失败的行
+            log.warn("批量插入用户失败，改为逐行插入: {}", e.getMessage());
+            List<Row> rows = new ArrayList<>(hashed.keySet());
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] userRow = userArgs.get(i);
+                Object[] roleRow = roleArgs.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        jdbcTemplate.update(INSERT_USER_SQL, userRow);
+                        jdbcTemplate.update(INSERT_ROLE_SQL, roleRow);
+                    });
+                    state.succeed(rows.get(i));
+                } catch (DataAccessException rowError) {
+                    state.fail(rows.get(i).line(), rows.get(i).username(), "用户名或邮箱已存在");
+                }
+            }
+        }
+    }
+
+    private List<Row> excludeExisting(List<Row> chunk, ImportState state) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Row row : chunk) {
+            usernames.add(row.username());
+            emails.add(row.email());
+        }
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        namedParameterJdbcTemplate.query(EXISTING_SQL,
+                new MapSqlParameterSource().addValue("usernames", usernames).addValue("emails", emails),
+                rs -> {
+                    existingUsernames.add(normalize(rs.getString("username")));
+                    existingEmails.add(normalize(rs.getString("email")));
+                });
+
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existingUsernames.contains(normalize(row.username()))) {
+                state.fail(row.line(), row.username(), "用户名已存在");
+            } else if (existingEmails.contains(normalize(row.email()))) {
+                state.fail(row.line(), row.username(), "邮箱已存在");
+            } else {
+                candidates.add(row);
+            }
+        }
+        return candidates;
+    }
+
+    private static String validate(Row row, ImportState state) {
+        if (row.username() == null || !USERNAME_PATTERN.matcher(row.username()).matches()) {
+            return "用户名应为4-20个字母、数字或下划线";
+        }
+        if (row.email() == null || !EMAIL_PATTERN.matcher(row.email()).matches()) {
+            return "邮箱格式不正确";
+        }
+        if (row.password() == null || row.password().length() < PASSWORD_MIN_LENGTH
+                || row.password().length() > PASSWORD_MAX_LENGTH) {
+            return "密码长度应在6-20个字符之间";
+        }
+        // 名单内部重复（数据库按不区分大小写的排序规则比较）
+        if (!state.seenUsernames.add(normalize(row.username()))) {
+            return "名单中用户名重复";
+        }
+        if (!state.seenEmails.add(normalize(row.email()))) {
+            return "名单中邮箱重复";
+        }
+        return null;
+    }
+
+    private static String profileOf(Row row) {
+        Map<String, Object> profile = new HashMap<>();
+        putIfPresent(profile, "realName", row.realName());
+        putIfPresent(profile, "school", row.school());
+        putIfPresent(profile, "major", row.major());
+        return JsonUtils.standardizeProfile(profile);
+    }
+
+    private static void putIfPresent(Map<String, Object> map, String key, String value) {
+        if (value != null && !value.isEmpty()) {
+            map.put(key, value);
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String line) {
+        List<String> columns = parseCsvLine(stripBom(line));
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!header.containsKey(required)) {
+                throw UserException.invalidImportRequest("CSV表头缺少必需列: " + required);
+            }
+        }
+        return header;
+    }
+
+    private static Row parseCsvRow(long lineNumber, String line, Map<String, Integer> header) {
+        List<String> values = parseCsvLine(line);
+        return new Row(lineNumber,
+                column(values, header, "username"),
+                column(values, header, "email"),
+                column(values, header, "password"),
+                column(values, header, "realname"),
+                column(values, header, "school"),
+                column(values, header, "major"));
+    }
+
+    private static String column(List<String> values, Map<String, Integer> header, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Row parseJsonRow(long lineNumber, String line) {
+        Map<String, Object> values;
+        try {
+            values = ROW_READER.readValue(stripBom(line));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON格式不正确");
+        }
+        return new Row(lineNumber,
+                text(values.get("username")),
+                text(values.get("email")),
+                text(values.get("password")),
+                text(values.get("realName")),
+                text(values.get("school")),
+                text(values.get("major")));
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * 解析一行CSV：支持双引号包裹的字段与""转义，不支持跨行字段
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV引号未闭合");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单次导入的累计状态
+     */
+    private final class ImportState {
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int total;
+        private int imported;
+        private int failed;
+
+        void succeed(Row row) {
+            imported++;
+            importedCounter.increment();
+            usernameAutocompleteIndex.add(row.username());
+        }
+
+        void fail(long line, String username, String message) {
+            failed++;
+            failedCounter.increment();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, username, message));
+            }
+        }
+    }
+}
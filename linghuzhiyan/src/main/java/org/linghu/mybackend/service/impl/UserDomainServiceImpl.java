@@ -1,22 +1,36 @@
 package org.linghu.mybackend.service.impl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 
+import org.linghu.mybackend.domain.LoginSnapshot;
 import org.linghu.mybackend.domain.Role;
 import org.linghu.mybackend.domain.User;
 import org.linghu.mybackend.domain.UserRoleId;
 import org.linghu.mybackend.domain.UserRoleRelation;
+import org.linghu.mybackend.event.UserChangedEvent;
 import org.linghu.mybackend.repository.RoleRepository;
 import org.linghu.mybackend.repository.UserRepository;
 import org.linghu.mybackend.repository.UserRoleRepository;
 import org.linghu.mybackend.service.UserDomainService;
+import org.linghu.mybackend.utils.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -32,6 +46,43 @@ public class UserDomainServiceImpl implements UserDomainService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserRoleRepository userRoleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // 用户角色缓存：角色数据极少变更但读取频繁，变更时通过事件精确失效
+    @Value("${user.role-cache.size:10000}")
+    private int roleCacheSize;
+
+    @Value("${user.role-cache.ttl-seconds:600}")
+    private long roleCacheTtlSeconds;
+
+    // 令牌版本缓存的容量与存活时间，TTL决定多实例部署时版本变更的最大传播延迟
+    @Value("${jwt.token-version-cache.size:10000}")
+    private int tokenVersionCacheSize;
+
+    @Value("${jwt.token-version-cache.ttl-seconds:30}")
+    private long tokenVersionCacheTtlSeconds;
+
+    private LruCache<String, Set<String>> roleCache;
+
+    private LruCache<String, Integer> tokenVersionCache;
+
+    // 用户总数缓存：游标分页按需返回总数，短时缓存避免每页执行COUNT(*)
+    @Value("${user.count-cache.ttl-seconds:60}")
+    private long userCountCacheTtlSeconds;
+
+    private static final String USER_COUNT_KEY = "all";
+
+    private LruCache<String, Long> userCountCache;
+
+    @PostConstruct
+    void initCaches() {
+        roleCache = new LruCache<>(roleCacheSize, roleCacheTtlSeconds * 1000);
+        roleCache.bindTo(meterRegistry, "user.roles");
+        tokenVersionCache = new LruCache<>(tokenVersionCacheSize, tokenVersionCacheTtlSeconds * 1000);
+        tokenVersionCache.bindTo(meterRegistry, "user.token-version");
+        userCountCache = new LruCache<>(1, userCountCacheTtlSeconds * 1000);
+    }
 
     @Override
     @Transactional
@@ -41,7 +92,10 @@ public class UserDomainServiceImpl implements UserDomainService {
         user.setUpdatedAt(now);
         user.setIsDeleted(false);
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCountCache.clear();
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), savedUser.getUsername()));
+        return savedUser;
     }
 
     @Override
@@ -56,6 +110,26 @@ public class UserDomainServiceImpl implements UserDomainService {
         return userRepository.findByUsername(username);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LoginSnapshot> findLoginSnapshot(String username) {
+        List<Object[]> rows = userRepository.findWithRoleIdsByUsername(username);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        User user = (User) rows.get(0)[0];
+        Set<String> roleIds = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                roleIds.add((String) row[1]);
+            }
+        }
+        Set<String> immutableRoleIds = Set.copyOf(roleIds);
+        // 后续按用户ID读取角色（如登录统计）直接命中缓存
+        roleCache.put(user.getId(), immutableRoleIds);
+        return Optional.of(new LoginSnapshot(user, immutableRoleIds));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
@@ -79,7 +153,9 @@ public class UserDomainServiceImpl implements UserDomainService {
     public User updateUser(User user) {
         user.setUpdatedAt(new Date());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        publishUserChanged(savedUser);
+        return savedUser;
     }
 
     @Override
@@ -88,8 +164,10 @@ public class UserDomainServiceImpl implements UserDomainService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         user.setIsDeleted(true);
+        user.setTokenVersion(currentTokenVersion(user) + 1);
         user.setUpdatedAt(new Date());
         userRepository.save(user);
+        publishUserChanged(user);
     }
 
     @Override
@@ -106,13 +184,43 @@ public class UserDomainServiceImpl implements UserDomainService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> findByRoleId(String roleId) {
-        List<UserRoleRelation> userRoles = userRoleRepository.findByIdRoleId(roleId);
-        Set<String> userIds = userRoles.stream()
-                .map(ur -> ur.getId().getUserId())
-                .collect(Collectors.toSet());
+    public List<User> findPageAfter(Date afterCreatedAt, String afterId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        if (afterCreatedAt == null || afterId == null) {
+            return userRepository.findFirstByCreatedAtDesc(pageable);
+        }
+        return userRepository.findAfterByCreatedAtDesc(afterCreatedAt, afterId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countUsers() {
+        return userCountCache.computeIfAbsent(USER_COUNT_KEY, key -> userRepository.count());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> searchUsers(String prefix, String roleId, String school, String major, String afterUsername,
+                                  int limit) {
+        String after = afterUsername == null ? "" : afterUsername;
+        List<String> ids = prefix == null || prefix.isEmpty()
+                ? userRepository.searchIdsAfter(after, emptyToNull(roleId), emptyToNull(school), emptyToNull(major),
+                        limit)
+                : userRepository.searchIdsByPrefix(escapeLike(prefix) + "%", after, emptyToNull(roleId),
+                        emptyToNull(school), emptyToNull(major), limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // 按主键批量加载后恢复ID查询的用户名顺序
+        Map<String, User> usersById = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+        return ids.stream().map(usersById::get).filter(Objects::nonNull).toList();
+    }
 
-        return userRepository.findAllById(userIds);
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findAllActiveUsernames() {
+        return userRepository.findAllActiveUsernames();
     }
 
     @Override
@@ -132,6 +240,7 @@ public class UserDomainServiceImpl implements UserDomainService {
 
         // 保存关联
         userRoleRepository.save(userRole);
+        publishUserChanged(user);
         return user;
     }
 
@@ -148,6 +257,7 @@ public class UserDomainServiceImpl implements UserDomainService {
 
         // Clear and refresh the user to avoid ConcurrentModificationException
         user = userRepository.findById(userId).orElse(user);
+        publishUserChanged(user);
 
         return user;
     }
@@ -155,9 +265,100 @@ public class UserDomainServiceImpl implements UserDomainService {
     @Override
     @Transactional(readOnly = true)
     public Set<String> getUserRoleIds(String userId) {
-        List<UserRoleRelation> userRoles = userRoleRepository.findByIdUserId(userId);
-        return userRoles.stream()
-                .map(ur -> ur.getId().getRoleId())
-                .collect(Collectors.toSet());
+        return roleCache.computeIfAbsent(userId, id -> {
+            List<UserRoleRelation> userRoles = userRoleRepository.findByIdUserId(id);
+            return userRoles.stream()
+                    .map(ur -> ur.getId().getRoleId())
+                    .collect(Collectors.toUnmodifiableSet());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Set<String>> getUserRoleIds(Collection<String> userIds) {
+        Map<String, Set<String>> result = new HashMap<>();
+        Map<String, Set<String>> missing = new HashMap<>();
+        for (String userId : userIds) {
+            Set<String> cached = roleCache.get(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                missing.put(userId, new HashSet<>());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (UserRoleRelation ur : userRoleRepository.findByIdUserIdIn(missing.keySet())) {
+                missing.get(ur.getId().getUserId()).add(ur.getId().getRoleId());
+            }
+            missing.forEach((userId, roleIds) -> {
+                Set<String> immutableRoleIds = Set.copyOf(roleIds);
+                roleCache.put(userId, immutableRoleIds);
+                result.put(userId, immutableRoleIds);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Integer> getTokenVersion(String username) {
+        Integer cached = tokenVersionCache.get(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Integer> version = userRepository.findTokenVersionByUsername(username);
+        version.ifPresent(v -> tokenVersionCache.put(username, v));
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public int incrementTokenVersion(String userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        int version = currentTokenVersion(user) + 1;
+        user.setTokenVersion(version);
+        user.setUpdatedAt(new Date());
+        userRepository.save(user);
+        publishUserChanged(user);
+        return version;
+    }
+
+    @Override
+    @Transactional
+    public boolean rehashPassword(String userId, String oldPasswordHash, String newPasswordHash) {
+        // 同一密码的不同哈希，不影响令牌版本与角色缓存，无需发布用户变更事件
+        return userRepository.updatePasswordIfUnchanged(userId, oldPasswordHash, newPasswordHash) > 0;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // 以!作为LIKE转义符，避免反斜杠在MySQL字符串字面量中的二次转义
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static int currentTokenVersion(User user) {
+        return user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+    }
+
+    /**
+     * 立即失效本地缓存并发布用户变更事件
+     * 事件监听器在事务提交后再次失效，防止提交前的并发读取回填旧值
+     */
+    private void publishUserChanged(User user) {
+        evictUserCaches(user.getId(), user.getUsername());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictUserCaches(event.getUserId(), event.getUsername());
+    }
+
+    private void evictUserCaches(String userId, String username) {
+        roleCache.remove(userId);
+        tokenVersionCache.remove(username);
     }
 }
@@ -2,18 +2,26 @@ package org.linghu.mybackend.service.impl;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+import org.linghu.mybackend.domain.LoginSnapshot;
 import org.linghu.mybackend.domain.User;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.linghu.mybackend.dto.CursorPageResult;
 import org.linghu.mybackend.dto.LoginRequestDTO;
 import org.linghu.mybackend.dto.LoginResponseDTO;
 import org.linghu.mybackend.dto.ProfileUpdateDTO;
 import org.linghu.mybackend.dto.UserDTO;
+import org.linghu.mybackend.dto.UserDirectoryEntryDTO;
+import org.linghu.mybackend.dto.UserImportResultDTO;
 import org.linghu.mybackend.dto.UserRegistrationDTO;
+import org.linghu.mybackend.exception.ServiceBusyException;
 import org.linghu.mybackend.exception.UserException;
 import org.linghu.mybackend.security.JwtTokenUtil;
+import org.linghu.mybackend.security.VerifiedToken;
 import org.linghu.mybackend.service.LoginLogService;
+import org.linghu.mybackend.service.TokenRevocationService;
 import org.linghu.mybackend.service.UserDomainService;
 import org.linghu.mybackend.service.UserService;
 import org.linghu.mybackend.constants.SystemConstants;
@@ -25,32 +33,42 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * 用户服务实现类
  * 实现业务层面的用户操作，依赖于UserDomainService处理核心领域操作
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserDomainService userDomainService;
-    private final AuthenticationManager authenticationManager;
     private final JwtTokenUtil jwtTokenUtil;
     private final PasswordEncoder passwordEncoder;
     private final LoginLogService loginLogService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UsernameAutocompleteIndex usernameAutocompleteIndex;
+    private final UserBulkImporter userBulkImporter;
 
     @Value("${jwt.tokenHead}")
     private String tokenHead;
@@ -58,6 +76,28 @@ public class UserServiceImpl implements UserService {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    // 登录失败锁定：窗口内同一账号或IP失败次数达到阈值后拒绝登录
+    @Value("${login.lock.enabled:false}")
+    private boolean loginLockEnabled;
+
+    @Value("${login.lock.threshold:5}")
+    private int loginLockThreshold;
+
+    @Value("${login.lock.minutes:15}")
+    private int loginLockMinutes;
+
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+
+    // 批量导入只允许分配非管理员角色
+    private static final Set<String> IMPORTABLE_ROLES = Set.of(
+            SystemConstants.ROLE_STUDENT, SystemConstants.ROLE_ASSISTANT, SystemConstants.ROLE_TEACHER);
+
+    private static final DateTimeFormatter DATETIME_FORMATTER =
+            DateTimeFormatter.ofPattern(SystemConstants.DATETIME_FORMAT).withZone(ZoneId.systemDefault());
+
+    // 用户不存在时用于比对的哈希，首次使用时按当前编码器生成
+    private volatile String dummyPasswordHash;
+
     @Override
     @Transactional
     public UserDTO registerUser(UserRegistrationDTO registrationDTO) { // 检查用户名是否已存在
@@ -100,24 +140,22 @@ public class UserServiceImpl implements UserService {
             deviceType = RequestUtils.getDeviceType(request);
             loginInfo = RequestUtils.collectRequestInfo(request);
         }
+
+        // 失败次数检查由内存窗口完成，不查询登录日志表
+        if (loginLockEnabled
+                && (loginLogService.isUserLocked(loginRequestDTO.getUsername(), loginLockThreshold, loginLockMinutes)
+                    || loginLogService.isIpLocked(ipAddress, loginLockThreshold, loginLockMinutes))) {
+            throw UserException.accountLocked();
+        }
         
         try {
-            // 使用Spring Security进行身份验证
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequestDTO.getUsername(),
-                            loginRequestDTO.getPassword()));
-
-            // 获取认证成功的用户详情
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-
-            // 查找用户信息
-            User user = userDomainService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(UserException::userNotFound);
+            // 一次查询加载用户与角色，后续校验、签发令牌和构建响应都复用该快照
+            LoginSnapshot snapshot = authenticate(loginRequestDTO.getUsername(), loginRequestDTO.getPassword());
+            User user = snapshot.user();
+            Set<String> userRoles = snapshot.roleIds();
 
             // 如果指定了角色，验证用户是否拥有该角色
             if (loginRequestDTO.getRole() != null && !loginRequestDTO.getRole().isEmpty()) {
-                // 获取用户的所有角色ID
-                Set<String> userRoles = userDomainService.getUserRoleIds(user.getId());
 
                 // 检查用户是否拥有指定角色，考虑角色前缀
                 String roleWithPrefix = loginRequestDTO.getRole();
@@ -138,6 +176,9 @@ public class UserServiceImpl implements UserService {
                 }
             }
 
+            // 存储的哈希工作因子与当前配置不一致时，用本次登录的明文密码重新哈希
+            rehashPasswordIfNeeded(user, loginRequestDTO.getPassword());
+
             // 记录登录成功日志
             loginLogService.logSuccessfulLogin(
                 user.getId(),
@@ -147,11 +188,11 @@ public class UserServiceImpl implements UserService {
             );
 
             // 生成JWT token
-            String token = jwtTokenUtil.generateToken(userDetails);
+            String token = jwtTokenUtil.generateToken(user.getUsername(), userRoles, user.getTokenVersion());
 
             // 构建响应
             return LoginResponseDTO.builder()
-                    .user(convertToDTO(user))
+                    .user(convertToDTO(user, userRoles))
                     .token(token)
                     .tokenType(tokenHead)
                     .expiresIn(expiration / 1000) // 转换为秒
@@ -166,6 +207,9 @@ public class UserServiceImpl implements UserService {
                 loginInfo
             );
             throw UserException.invalidCredentials();
+        } catch (ServiceBusyException e) {
+            // 服务繁忙不是登录失败，不计入失败日志与锁定窗口
+            throw e;
         } catch (Exception e) {
             // 记录其他登录失败情况
             loginLogService.logFailedLogin(
@@ -179,6 +223,64 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * 校验用户名与密码，返回登录快照
+     * 用户不存在或已删除时也执行一次哈希比对，使响应时间不暴露用户名是否存在
+     */
+    private LoginSnapshot authenticate(String username, String rawPassword) {
+        LoginSnapshot snapshot = userDomainService.findLoginSnapshot(username)
+                .filter(s -> !Boolean.TRUE.equals(s.user().getIsDeleted()))
+                .orElse(null);
+        if (snapshot == null) {
+            passwordEncoder.matches(rawPassword, dummyPasswordHash());
+            throw new BadCredentialsException("用户名或密码错误");
+        }
+        if (!passwordEncoder.matches(rawPassword, snapshot.user().getPassword())) {
+            throw new BadCredentialsException("用户名或密码错误");
+        }
+        return snapshot;
+    }
+
+    private String dummyPasswordHash() {
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyPasswordHash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public void logout(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(tokenHead)) {
+            return;
+        }
+        VerifiedToken verifiedToken = jwtTokenUtil.verifyToken(authorizationHeader.substring(tokenHead.length()));
+        // 早期签发的令牌没有jti，无法单独注销，只能等待其过期
+        if (verifiedToken.getId() != null) {
+            tokenRevocationService.revoke(verifiedToken.getId(), verifiedToken.getSubject(),
+                    verifiedToken.getExpiration());
+        }
+    }
+
+    /**
+     * 按当前工作因子重新哈希密码，失败时不影响本次登录
+     */
+    private void rehashPasswordIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            // 条件更新只替换仍为旧哈希的密码；期间已改密时放弃本次重新哈希
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userDomainService.rehashPassword(user.getId(), user.getPassword(), newHash)) {
+                user.setPassword(newHash);
+            }
+        } catch (RuntimeException e) {
+            log.warn("登录时重新哈希密码失败: userId={}, error={}", user.getId(), e.getMessage());
+        }
+    }
+
     @Override
     public UserDTO getUserById(String id) {
         User user = userDomainService.findById(id)
@@ -211,38 +313,46 @@ public class UserServiceImpl implements UserService {
                 userDomainService.existsByEmail(userDTO.getEmail())) {
             throw UserException.emailAlreadyExists();
         } 
-        // 更新用户基本信息
-        user.setUsername(userDTO.getUsername());
-        user.setEmail(userDTO.getEmail());
-        user.setAvatar(userDTO.getAvatar());
-        // 使用standardizeProfile方法处理profile
-        user.setProfile(JsonUtils.standardizeProfile(userDTO.getProfile()));
-
-        // 更新用户
-        User updatedUser = userDomainService.updateUser(user);
-
-        // 处理角色更新
+        // 计算角色变更
+        Set<String> rolesToAdd = new HashSet<>();
+        Set<String> rolesToRemove = new HashSet<>();
         if (userDTO.getRoles() != null && !userDTO.getRoles().isEmpty()) {
             // 获取当前用户角色
             Set<String> currentRoleIds = userDomainService.getUserRoleIds(id);
 
             // 需要添加的角色
-            Set<String> rolesToAdd = new HashSet<>(userDTO.getRoles());
+            rolesToAdd.addAll(userDTO.getRoles());
             rolesToAdd.removeAll(currentRoleIds);
 
             // 需要移除的角色
-            Set<String> rolesToRemove = new HashSet<>(currentRoleIds);
+            rolesToRemove.addAll(currentRoleIds);
             rolesToRemove.removeAll(userDTO.getRoles());
+        }
 
-            // 添加新角色
-            for (String roleId : rolesToAdd) {
-                userDomainService.assignRoleToUser(id, roleId);
-            }
+        // 角色或用户名变更时递增令牌版本，使已签发令牌中的角色声明失效
+        if (!rolesToAdd.isEmpty() || !rolesToRemove.isEmpty()
+                || !user.getUsername().equals(userDTO.getUsername())) {
+            userDomainService.incrementTokenVersion(id);
+        }
 
-            // 移除旧角色
-            for (String roleId : rolesToRemove) {
-                userDomainService.removeRoleFromUser(id, roleId);
-            }
+        // 更新用户基本信息
+        user.setUsername(userDTO.getUsername());
+        user.setEmail(userDTO.getEmail());
+        user.setAvatar(userDTO.getAvatar());
+        // 使用standardizeProfile方法处理profile
+        user.setProfile(JsonUtils.standardizeProfile(userDTO.getProfile()));
+
+        // 更新用户
+        User updatedUser = userDomainService.updateUser(user);
+
+        // 添加新角色
+        for (String roleId : rolesToAdd) {
+            userDomainService.assignRoleToUser(id, roleId);
+        }
+
+        // 移除旧角色
+        for (String roleId : rolesToRemove) {
+            userDomainService.removeRoleFromUser(id, roleId);
         }
 
         return convertToDTO(updatedUser);
@@ -260,19 +370,173 @@ public class UserServiceImpl implements UserService {
             throw UserException.invalidOldPassword();
         }
 
-        // 更新密码
+        // 更新密码，并递增令牌版本使已签发的令牌全部失效
         user.setPassword(passwordEncoder.encode(newPassword));
+        userDomainService.incrementTokenVersion(user.getId());
         userDomainService.updateUser(user);
     }
 
     @Override
     public Page<UserDTO> listUsers(int pageNum, int pageSize) {
+        return listUsers(pageNum, pageSize, true);
+    }
+
+    @Override
+    public Page<UserDTO> listUsers(int pageNum, int pageSize, boolean includeProfile) {
         // 页码从0开始计算
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize);
         Page<User> userPage = userDomainService.findAll(pageable);
 
+        // 整页用户的角色一次查询加载，避免逐行查询
+        Map<String, Set<String>> rolesByUserId = userDomainService.getUserRoleIds(
+                userPage.getContent().stream().map(User::getId).toList());
+
         // 转换为DTO
-        return userPage.map(this::convertToDTO);
+        return userPage.map(user -> convertToDTO(user,
+                rolesByUserId.getOrDefault(user.getId(), Set.of()), includeProfile));
+    }
+
+    @Override
+    public CursorPageResult<UserDTO> listUsersByCursor(String cursor, int pageSize, boolean includeTotal,
+                                                       boolean includeProfile) {
+        if (pageSize < 1) {
+            throw UserException.invalidPageSize();
+        }
+        pageSize = Math.min(pageSize, SystemConstants.MAX_PAGE_SIZE);
+        Date afterCreatedAt = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.indexOf(':');
+            try {
+                afterCreatedAt = new Date(Long.parseLong(decoded.substring(0, separator)));
+            } catch (RuntimeException e) {
+                throw UserException.invalidCursor();
+            }
+            afterId = decoded.substring(separator + 1);
+        }
+
+        // 多取一条用于判断是否还有下一页
+        List<User> users = userDomainService.findPageAfter(afterCreatedAt, afterId, pageSize + 1);
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        Map<String, Set<String>> rolesByUserId = userDomainService.getUserRoleIds(
+                users.stream().map(User::getId).toList());
+        List<UserDTO> list = users.stream()
+                .map(user -> convertToDTO(user, rolesByUserId.getOrDefault(user.getId(), Set.of()), includeProfile))
+                .toList();
+
+        return CursorPageResult.<UserDTO>builder()
+                .list(list)
+                .nextCursor(hasMore ? encodeCursor(users.get(users.size() - 1)) : null)
+                .hasMore(hasMore)
+                .total(includeTotal ? userDomainService.countUsers() : null)
+                .pageSize(pageSize)
+                .build();
+    }
+
+    @Override
+    public CursorPageResult<UserDirectoryEntryDTO> searchUsers(String keyword, String role, String school,
+                                                               String major, List<String> profileFields,
+                                                               String cursor, int pageSize) {
+        if (pageSize < 1) {
+            throw UserException.invalidPageSize();
+        }
+        pageSize = Math.min(pageSize, SystemConstants.MAX_PAGE_SIZE);
+        String roleId = null;
+        if (role != null && !role.isEmpty()) {
+            roleId = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        }
+        String prefix = keyword == null ? "" : keyword.trim();
+        String afterUsername = cursor == null || cursor.isEmpty() ? null : decodeSearchCursor(cursor);
+
+        // 多取一条用于判断是否还有下一页
+        List<User> users = userDomainService.searchUsers(prefix, roleId, school, major, afterUsername, pageSize + 1);
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        Map<String, Set<String>> rolesByUserId = userDomainService.getUserRoleIds(
+                users.stream().map(User::getId).toList());
+        boolean includeProfile = profileFields != null && !profileFields.isEmpty();
+        List<UserDirectoryEntryDTO> list = users.stream()
+                .map(user -> UserDirectoryEntryDTO.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .email(user.getEmail())
+                        .avatar(user.getAvatar())
+                        .roles(rolesByUserId.getOrDefault(user.getId(), Set.of()))
+                        .profile(includeProfile ? JsonUtils.getProfileFields(user.getProfile(), profileFields) : null)
+                        .build())
+                .toList();
+        return CursorPageResult.<UserDirectoryEntryDTO>builder()
+                .list(list)
+                .nextCursor(hasMore ? encodeSearchCursor(users.get(users.size() - 1).getUsername()) : null)
+                .hasMore(hasMore)
+                .pageSize(pageSize)
+                .build();
+    }
+
+    @Override
+    public UserImportResultDTO importUsers(InputStream in, String format, String role) throws IOException {
+        UserBulkImporter.Format importFormat;
+        try {
+            importFormat = UserBulkImporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            throw UserException.invalidImportRequest("不支持的名单格式: " + format);
+        }
+        String roleId = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        if (!IMPORTABLE_ROLES.contains(roleId)) {
+            throw UserException.invalidImportRequest("不支持批量导入该角色: " + role);
+        }
+        return userBulkImporter.importUsers(in, importFormat, roleId);
+    }
+
+    @Override
+    public List<String> autocompleteUsernames(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return usernameAutocompleteIndex.suggest(prefix.trim(), Math.min(limit, MAX_AUTOCOMPLETE_LIMIT));
+    }
+
+    /**
+     * 游标为 "创建时间毫秒:用户ID" 的URL安全Base64编码，对调用方不透明
+     */
+    private static String encodeCursor(User user) {
+        String raw = user.getCreatedAt().getTime() + ":" + user.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.indexOf(':') <= 0) {
+                throw UserException.invalidCursor();
+            }
+            return decoded;
+        } catch (IllegalArgumentException e) {
+            throw UserException.invalidCursor();
+        }
+    }
+
+    /**
+     * 目录搜索游标为上一页最后一个用户名的URL安全Base64编码
+     */
+    private static String encodeSearchCursor(String username) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeSearchCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw UserException.invalidCursor();
+        }
     }
 
     /**
@@ -282,22 +546,49 @@ public class UserServiceImpl implements UserService {
      * @return 用户DTO
      */
     private UserDTO convertToDTO(User user) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        return convertToDTO(user, userDomainService.getUserRoleIds(user.getId()));
+    }
 
+    /**
+     * 将User实体转换为UserDTO，使用已加载的角色ID
+     * 
+     * @param user 用户实体
+     * @param roleIds 角色ID集合
+     * @return 用户DTO
+     */
+    private UserDTO convertToDTO(User user, Set<String> roleIds) {
+        return convertToDTO(user, roleIds, true);
+    }
+
+    /**
+     * 将User实体转换为UserDTO
+     * 
+     * @param user 用户实体
+     * @param roleIds 角色ID集合
+     * @param includeProfile 是否解析个人资料JSON
+     * @return 用户DTO
+     */
+    private UserDTO convertToDTO(User user, Set<String> roleIds, boolean includeProfile) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setUsername(user.getUsername());
         dto.setEmail(user.getEmail());
         dto.setAvatar(user.getAvatar());
-        dto.setProfile(JsonUtils.parseObject(user.getProfile(), Object.class));
-        dto.setRoles(userDomainService.getUserRoleIds(user.getId()));
-        dto.setCreatedAt(dateFormat.format(user.getCreatedAt()));
-        dto.setUpdatedAt(dateFormat.format(user.getUpdatedAt()));
+        if (includeProfile) {
+            dto.setProfile(JsonUtils.parseObject(user.getProfile(), Object.class));
+        }
+        dto.setRoles(roleIds);
+        dto.setCreatedAt(formatDate(user.getCreatedAt()));
+        dto.setUpdatedAt(formatDate(user.getUpdatedAt()));
         dto.setIsDeleted(user.getIsDeleted());
 
         return dto;
     }
 
+    private static String formatDate(Date date) {
+        return date == null ? null : DATETIME_FORMATTER.format(date.toInstant());
+    }
+
     @Override
     @Transactional
     public UserDTO updateUserProfile(String username, ProfileUpdateDTO profileUpdateDTO) {
@@ -0,0 +1,92 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.User;
+import org.linghu.mybackend.event.UserChangedEvent;
+import org.linghu.mybackend.service.UserDomainService;
+import org.linghu.mybackend.utils.PrefixTrie;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * 用户名自动补全索引
+ * 启动时加载全部未删除用户的用户名到内存前缀树，用户变更时增量更新，
+ * 并定时全量重建以纠正改名等增量无法覆盖的情况
+ */
+@Slf4j
+@Component
+public class UsernameAutocompleteIndex {
+
+    private final UserDomainService userDomainService;
+    private final MeterRegistry meterRegistry;
+    private volatile PrefixTrie trie = new PrefixTrie();
+
+    public UsernameAutocompleteIndex(UserDomainService userDomainService, MeterRegistry meterRegistry) {
+        this.userDomainService = userDomainService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("user.autocomplete.size", this, index -> index.trie.size()).register(meterRegistry);
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // 数据库暂不可用时以空索引启动，等待定时重建
+            log.warn("用户名自动补全索引初始化失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 返回以prefix开头的用户名（不区分大小写，按字典序）
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return trie.startsWith(prefix, limit);
+    }
+
+    /**
+     * 添加用户名（如批量导入后）
+     */
+    public void add(String username) {
+        trie.add(username);
+    }
+
+    /**
+     * 全量重建索引，构建完成后整体替换
+     */
+    @Scheduled(fixedDelayString = "${user.autocomplete.rebuild-interval-ms:600000}",
+            initialDelayString = "${user.autocomplete.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        PrefixTrie rebuilt = new PrefixTrie();
+        for (String username : userDomainService.findAllActiveUsernames()) {
+            rebuilt.add(username);
+        }
+        trie = rebuilt;
+        log.debug("用户名自动补全索引已重建: {} 个用户名", rebuilt.size());
+    }
+
+    /**
+     * 用户新增、删除或恢复后更新对应的词条
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUsername() == null) {
+            return;
+        }
+        boolean active = userDomainService.findById(event.getUserId())
+                .map(User::getIsDeleted)
+                .map(deleted -> !deleted)
+                .orElse(false);
+        if (active) {
+            trie.add(event.getUsername());
+        } else {
+            trie.remove(event.getUsername());
+        }
+    }
+}
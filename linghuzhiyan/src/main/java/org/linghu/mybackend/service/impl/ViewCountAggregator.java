@@ -0,0 +1,142 @@
+package org.linghu.mybackend.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.linghu.mybackend.domain.Discussion;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 讨论浏览数写回汇总器
+ * 浏览先累加到每个讨论的LongAdder，定时以一次无序bulkWrite的$inc写回；
+ * 读取详情不再同步写库，浏览数最多滞后一个刷新间隔
+ */
+@Slf4j
+@Component
+public class ViewCountAggregator {
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    private Counter flushedCounter;
+    private Counter failedCounter;
+
+    public ViewCountAggregator(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("discussion.view_count.pending_discussions", pending, Map::size).register(meterRegistry);
+        Gauge.builder("discussion.view_count.pending_views", this, ViewCountAggregator::pendingTotal)
+                .register(meterRegistry);
+        flushedCounter = meterRegistry.counter("discussion.view_count.flushed");
+        failedCounter = meterRegistry.counter("discussion.view_count.failed");
+    }
+
+    /**
+     * 记录一次浏览
+     */
+    public void record(String discussionId) {
+        pending.computeIfAbsent(discussionId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * 尚未写回的浏览数，用于在详情中补齐最新值
+     */
+    public long pending(String discussionId) {
+        LongAdder adder = pending.get(discussionId);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /**
+     * 将累计的浏览数写回数据库
+     */
+    @Scheduled(fixedDelayString = "${discussion.view-count.flush-interval-ms:5000}")
+    public void flush() {
+        Map<String, Long> deltas = new HashMap<>();
+        List<String> idle = new ArrayList<>();
+        pending.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                deltas.put(id, delta);
+            } else {
+                idle.add(id);
+            }
+        });
+        // 上个间隔没有浏览的讨论移出内存；与移除同时发生的个别浏览可能不计入，浏览数允许这类误差
+        idle.forEach(id -> pending.computeIfPresent(id, (key, adder) -> adder.sum() == 0 ? null : adder));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // 按固定顺序加入批量操作，部分失败时按错误的下标找回对应讨论
+        List<Map.Entry<String, Long>> updates = new ArrayList<>(deltas.entrySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Discussion.class);
+        updates.forEach(update -> bulk.updateOne(Query.query(Criteria.where("_id").is(update.getKey())),
+                new Update().inc("viewCount", update.getValue())));
+        try {
+            bulk.execute();
+            flushedCounter.increment(sum(updates));
+        } catch (BulkOperationException e) {
+            // 无序写入中其余更新已生效，只把失败的增量放回内存，避免重复计数
+            List<Map.Entry<String, Long>> failed = e.getErrors().stream()
+                    .map(error -> updates.get(error.getIndex()))
+                    .collect(Collectors.toList());
+            log.warn("{}个讨论浏览数写回失败，将在下次刷新时重试: {}", failed.size(), e.getMessage());
+            failedCounter.increment();
+            flushedCounter.increment(sum(updates) - sum(failed));
+            requeue(failed);
+        } catch (Exception e) {
+            // 写回失败时把增量放回内存，下次刷新时重试
+            log.warn("讨论浏览数写回失败，将在下次刷新时重试: {}", e.getMessage());
+            failedCounter.increment();
+            requeue(updates);
+        }
+    }
+
+    private void requeue(List<Map.Entry<String, Long>> updates) {
+        updates.forEach(update -> pending.computeIfAbsent(update.getKey(), key -> new LongAdder())
+                .add(update.getValue()));
+    }
+
+    private static long sum(List<Map.Entry<String, Long>> updates) {
+        return updates.stream().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    /**
+     * 关闭时写回全部浏览数
+     */
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private double pendingTotal() {
+        long total = 0;
+        for (LongAdder adder : pending.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+}
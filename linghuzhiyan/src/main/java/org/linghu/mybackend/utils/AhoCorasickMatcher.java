@@ -0,0 +1,118 @@
+package org.linghu.mybackend.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick多模式匹配器（ASCII，不区分大小写）
+ * 构建时将全部模式编译为确定性自动机，匹配时对输入只扫描一遍，与模式数量无关；
+ * 构建后不可变，可并发使用
+ */
+public class AhoCorasickMatcher {
+
+    private static final int ALPHABET = 128;
+
+    /**
+     * 匹配回调
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        /**
+         * @param patternIndex 命中的模式下标（与构建时的顺序一致）
+         * @param end 命中位置之后的下标（即模式在输入中的结束位置，不包含）
+         */
+        void onMatch(int patternIndex, int end);
+    }
+
+    private final int[][] transitions;
+    private final int[][] outputs;
+
+    /**
+     * @param patterns 模式列表，匹配时忽略大小写
+     */
+    public AhoCorasickMatcher(List<String> patterns) {
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> outputList = new ArrayList<>();
+        gotoTable.add(newState());
+        outputList.add(new ArrayList<>());
+
+        // 构建字典树
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p).toLowerCase(Locale.ROOT);
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int c = pattern.charAt(i);
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("only ASCII patterns are supported: " + pattern);
+                }
+                if (gotoTable.get(state)[c] < 0) {
+                    gotoTable.get(state)[c] = gotoTable.size();
+                    gotoTable.add(newState());
+                    outputList.add(new ArrayList<>());
+                }
+                state = gotoTable.get(state)[c];
+            }
+            outputList.get(state).add(p);
+        }
+
+        // 按层计算失败指针，并将转移补全为确定性自动机
+        int[] fail = new int[gotoTable.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        int[] root = gotoTable.get(0);
+        for (int c = 0; c < ALPHABET; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                fail[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = gotoTable.get(state);
+            outputList.get(state).addAll(outputList.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = row[c];
+                if (next < 0) {
+                    row[c] = gotoTable.get(fail[state])[c];
+                } else {
+                    fail[next] = gotoTable.get(fail[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = gotoTable.toArray(new int[0][]);
+        this.outputs = new int[outputList.size()][];
+        for (int i = 0; i < outputList.size(); i++) {
+            outputs[i] = outputList.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * 扫描输入并对每个命中回调一次
+     */
+    public void match(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            state = c < ALPHABET ? transitions[state][c] : 0;
+            for (int patternIndex : outputs[state]) {
+                handler.onMatch(patternIndex, i + 1);
+            }
+        }
+    }
+
+    private static int[] newState() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
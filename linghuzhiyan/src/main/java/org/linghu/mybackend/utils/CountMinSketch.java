@@ -0,0 +1,80 @@
+package org.linghu.mybackend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch 频率估计
+ * 以固定内存估计任意键的出现次数，估计值只会偏大不会偏小；
+ * 计数通过原子数组更新，可并发写入
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counts;
+
+    /**
+     * @param width 每行计数器数量，越大误差越小
+     * @param depth 哈希函数（行）数量，越大误差概率越低
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counts = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * 键计数加一
+     */
+    public void add(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counts.incrementAndGet(row * width + index(h1, h2, row));
+        }
+    }
+
+    /**
+     * 估计键的计数（各行最小值）
+     */
+    public long estimate(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts.get(row * width + index(h1, h2, row)));
+        }
+        return min;
+    }
+
+    /**
+     * 清空全部计数
+     */
+    public void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    // 双重哈希派生每行的位置：h1 + row * h2
+    private int index(int h1, int h2, int row) {
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    // FNV-1a 64位哈希
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
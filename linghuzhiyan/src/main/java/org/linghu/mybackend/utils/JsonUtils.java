@@ -8,7 +8,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -221,6 +223,33 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * 一次解析获取用户资料中的多个字段，只保留预定义的资料字段
+     * 
+     * @param profileStr 用户资料JSON字符串
+     * @param fieldNames 字段名
+     * @return 字段名到字段值的有序映射，不存在的字段值为空字符串
+     */
+    public static Map<String, String> getProfileFields(String profileStr, Collection<String> fieldNames) {
+        Map<String, String> result = new LinkedHashMap<>();
+        JsonNode rootNode = null;
+        if (StringUtils.isNotBlank(profileStr)) {
+            try {
+                rootNode = objectMapper.readTree(profileStr);
+            } catch (Exception e) {
+                logger.warn("获取用户资料字段时出错: {}", e.getMessage());
+            }
+        }
+        for (String fieldName : fieldNames) {
+            if (!PROFILE_FIELDS.containsKey(fieldName)) {
+                continue;
+            }
+            JsonNode fieldNode = rootNode != null ? rootNode.get(fieldName) : null;
+            result.put(fieldName, fieldNode != null ? fieldNode.asText("") : "");
+        }
+        return result;
+    }
+
     /**
      * 更新用户资料中的特定字段
      * 
@@ -0,0 +1,191 @@
+package org.linghu.mybackend.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * 有界LRU缓存，支持可选的条目过期时间
+ * 线程安全，适用于读多写少的小型热点数据缓存，并统计命中、未命中与淘汰次数
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 创建不过期的LRU缓存
+     * @param maxSize 最大条目数
+     */
+    public LruCache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    /**
+     * 创建LRU缓存
+     * @param maxSize 最大条目数
+     * @param ttlMillis 条目存活时间（毫秒），小于等于0表示不过期
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            map.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存值
+     */
+    public synchronized void put(K key, V value) {
+        long expiresAt = ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        map.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * 写入缓存值，并指定该条目的绝对过期时间
+     * @param expiresAtMillis 过期时间戳（毫秒），与缓存默认TTL取较早者
+     */
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        long expiresAt = expiresAtMillis;
+        if (ttlMillis > 0) {
+            expiresAt = Math.min(expiresAt, System.currentTimeMillis() + ttlMillis);
+        }
+        map.put(key, new Entry<>(value, expiresAt));
+    }
+
+    /**
+     * 获取缓存值，未命中时通过loader加载并写入缓存（loader返回null时不缓存）
+     * loader在锁外执行，并发未命中时可能被调用多次
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 移除缓存条目
+     */
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * 移除满足条件的条目，用于按值中的属性批量失效
+     */
+    public synchronized void removeIf(BiPredicate<? super K, ? super V> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * 当前条目数（包含尚未清理的过期条目）
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 将缓存统计注册到指标中心，指标命名与Micrometer缓存指标保持一致
+     *
+     * @param registry 指标注册中心
+     * @param cacheName 缓存名称（cache标签）
+     */
+    public void bindTo(MeterRegistry registry, String cacheName) {
+        Gauge.builder("cache.size", this, LruCache::size)
+                .tag("cache", cacheName)
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, LruCache::getHitCount)
+                .tag("cache", cacheName)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, LruCache::getMissCount)
+                .tag("cache", cacheName)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, LruCache::getEvictionCount)
+                .tag("cache", cacheName)
+                .register(registry);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
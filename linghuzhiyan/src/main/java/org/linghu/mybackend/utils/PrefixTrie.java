@@ -0,0 +1,136 @@
+package org.linghu.mybackend.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 前缀树，用于自动补全
+ * 以小写字符为键，查询不区分大小写，结果保留原始写法并按字典序返回；
+ * 读写锁保护，适合读多写少的场景
+ */
+public class PrefixTrie {
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private String word;
+    }
+
+    private final Node root = new Node();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * 添加词条，已存在时更新其原始写法
+     */
+    public void add(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            for (char c : key(word).toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node());
+            }
+            if (node.word == null) {
+                size++;
+            }
+            node.word = word;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除词条，并回收不再使用的节点
+     */
+    public void remove(String word) {
+        if (word == null || word.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            String key = key(word);
+            Deque<Node> path = new ArrayDeque<>(key.length() + 1);
+            Node node = root;
+            path.push(node);
+            for (char c : key.toCharArray()) {
+                node = node.children.get(c);
+                if (node == null) {
+                    return;
+                }
+                path.push(node);
+            }
+            if (node.word == null) {
+                return;
+            }
+            node.word = null;
+            size--;
+            for (int i = key.length() - 1; i >= 0; i--) {
+                Node child = path.pop();
+                if (child.word != null || !child.children.isEmpty()) {
+                    break;
+                }
+                path.peek().children.remove(key.charAt(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按字典序返回以prefix开头的至多limit个词条
+     */
+    public List<String> startsWith(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        if (prefix == null || limit <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (char c : key(prefix).toCharArray()) {
+                node = node.children.get(c);
+                if (node == null) {
+                    return result;
+                }
+            }
+            collect(node, result, limit);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, List<String> result, int limit) {
+        if (node.word != null) {
+            result.add(node.word);
+        }
+        for (Node child : node.children.values()) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    private static String key(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+}
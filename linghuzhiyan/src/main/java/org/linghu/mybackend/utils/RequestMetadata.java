@@ -0,0 +1,68 @@
+package org.linghu.mybackend.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 单个请求的元数据（IP、设备类型、请求信息JSON）
+ * 各字段在首次读取时才计算并缓存，只有真正记录日志的请求才需要付出解析和序列化的开销；
+ * 仅在处理该请求的线程内使用
+ */
+public final class RequestMetadata {
+
+    private static final RequestMetadata UNKNOWN = new RequestMetadata(null);
+
+    private final HttpServletRequest request;
+    private String ipAddress;
+    private String deviceType;
+    private String loginInfo;
+
+    private RequestMetadata(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    /**
+     * 为请求创建惰性元数据，请求为null时各字段返回默认值
+     */
+    public static RequestMetadata of(HttpServletRequest request) {
+        return request == null ? UNKNOWN : new RequestMetadata(request);
+    }
+
+    /**
+     * 客户端IP地址
+     */
+    public String getIpAddress() {
+        if (request == null) {
+            return "unknown";
+        }
+        if (ipAddress == null) {
+            ipAddress = RequestUtils.getClientIpAddress(request);
+        }
+        return ipAddress;
+    }
+
+    /**
+     * 客户端设备类型
+     */
+    public String getDeviceType() {
+        if (request == null) {
+            return "unknown";
+        }
+        if (deviceType == null) {
+            deviceType = RequestUtils.getDeviceType(request);
+        }
+        return deviceType;
+    }
+
+    /**
+     * JSON格式的请求信息
+     */
+    public String getLoginInfo() {
+        if (request == null) {
+            return "{}";
+        }
+        if (loginInfo == null) {
+            loginInfo = RequestUtils.collectRequestInfo(request);
+        }
+        return loginInfo;
+    }
+}
@@ -1,10 +1,10 @@
 package org.linghu.mybackend.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.util.StringUtils;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -26,6 +26,12 @@ public class RequestUtils {
             "REMOTE_ADDR"
     };
 
+    // 预先构建的线程安全JSON写出器，避免每次序列化都创建ObjectMapper
+    private static final ObjectWriter REQUEST_INFO_WRITER = new ObjectMapper().writerFor(Map.class);
+
+    // 客户端UA种类有限，解析结果按原始UA缓存
+    private static final UserAgentClassifier USER_AGENT_CLASSIFIER = new UserAgentClassifier(1024);
+
     /**
      * 获取客户端真实IP地址
      * @param request HTTP请求
@@ -40,8 +46,8 @@ public class RequestUtils {
             String ipList = request.getHeader(header);
             if (ipList != null && ipList.length() != 0 && !"unknown".equalsIgnoreCase(ipList)) {
                 // 可能有多个IP，第一个为客户端真实IP
-                String ip = ipList.split(",")[0];
-                return ip;
+                int comma = ipList.indexOf(',');
+                return comma < 0 ? ipList : ipList.substring(0, comma);
             }
         }
         
@@ -51,33 +57,19 @@ public class RequestUtils {
     /**
      * 获取客户端设备类型
      * @param request HTTP请求
-     * @return 设备类型
+     * @return 设备描述，形如 "Mobile/Android 14/Chrome 120"
      */
     public static String getDeviceType(HttpServletRequest request) {
-        String userAgent = request.getHeader("User-Agent");
-        if (userAgent == null) {
-            return "unknown";
-        }
-        
-        userAgent = userAgent.toLowerCase();
-        
-        if (userAgent.contains("mobile")) {
-            return "Mobile";
-        } else if (userAgent.contains("tablet")) {
-            return "Tablet";
-        } else if (userAgent.contains("android")) {
-            return "Android";
-        } else if (userAgent.contains("iphone") || userAgent.contains("ipad")) {
-            return "iOS";
-        } else if (userAgent.contains("windows")) {
-            return "Windows";
-        } else if (userAgent.contains("mac")) {
-            return "Mac";
-        } else if (userAgent.contains("linux")) {
-            return "Linux";
-        } else {
-            return "Desktop";
-        }
+        return getUserAgentInfo(request).toDeviceType();
+    }
+
+    /**
+     * 解析客户端User-Agent
+     * @param request HTTP请求
+     * @return 设备、系统与浏览器信息
+     */
+    public static UserAgentInfo getUserAgentInfo(HttpServletRequest request) {
+        return USER_AGENT_CLASSIFIER.classify(request.getHeader("User-Agent"));
     }
 
     /**
@@ -87,14 +79,13 @@ public class RequestUtils {
      */
     public static String collectRequestInfo(HttpServletRequest request) {
         try {
-            Map<String, Object> requestInfo = new HashMap<>();
+            Map<String, Object> requestInfo = new LinkedHashMap<>(8);
             requestInfo.put("userAgent", request.getHeader("User-Agent"));
             requestInfo.put("referer", request.getHeader("Referer"));
             requestInfo.put("method", request.getMethod());
             requestInfo.put("uri", request.getRequestURI());
             
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.writeValueAsString(requestInfo);
+            return REQUEST_INFO_WRITER.writeValueAsString(requestInfo);
         } catch (Exception e) {
             return "{}";
         }
@@ -0,0 +1,142 @@
+package org.linghu.mybackend.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按键分组的滑动窗口计数器
+ * 每个键对应一个固定大小的环形桶数组，每个桶以单个long同时保存桶序号（高位）和计数（低位），
+ * 通过CAS无锁更新；查询只遍历固定数量的桶，与事件数量无关；
+ * 可限制跟踪的键数量，达到上限后新键的计数被丢弃，已跟踪的键不受影响
+ *
+ * @param <K> 键类型
+ */
+public class SlidingWindowCounter<K> {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int maxKeys;
+    private final ConcurrentMap<K, AtomicLongArray> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param bucketMillis 单个桶的时间跨度（毫秒）
+     * @param bucketCount 桶数量，二者乘积为可查询的最大窗口
+     */
+    public SlidingWindowCounter(long bucketMillis, int bucketCount) {
+        this(bucketMillis, bucketCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param bucketMillis 单个桶的时间跨度（毫秒）
+     * @param bucketCount 桶数量，二者乘积为可查询的最大窗口
+     * @param maxKeys 最多跟踪的键数量；并发新增时可能略微超出
+     */
+    public SlidingWindowCounter(long bucketMillis, int bucketCount, int maxKeys) {
+        if (bucketMillis <= 0 || bucketCount <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("bucketMillis, bucketCount and maxKeys must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 可查询的最大窗口长度（毫秒）
+     */
+    public long getMaxWindowMillis() {
+        return bucketMillis * bucketCount;
+    }
+
+    /**
+     * 键是否已被跟踪，或仍可新增跟踪
+     */
+    public boolean canTrack(K key) {
+        return windows.size() < maxKeys || windows.containsKey(key);
+    }
+
+    /**
+     * 在指定时间点为键计数一次，超出窗口范围的历史时间点将被忽略
+     *
+     * @return 键达到数量上限而未计数时返回false
+     */
+    public boolean increment(K key, long timestampMillis) {
+        long bucket = timestampMillis / bucketMillis;
+        AtomicLongArray ring = windows.get(key);
+        if (ring == null) {
+            if (windows.size() >= maxKeys) {
+                return false;
+            }
+            ring = windows.computeIfAbsent(key, k -> new AtomicLongArray(bucketCount));
+        }
+        int index = (int) (bucket % bucketCount);
+        while (true) {
+            long current = ring.get(index);
+            long currentBucket = current >>> COUNT_BITS;
+            long next;
+            if (currentBucket == bucket) {
+                long count = current & COUNT_MASK;
+                if (count == COUNT_MASK) {
+                    return true; // 计数饱和
+                }
+                next = current + 1;
+            } else if (currentBucket < bucket) {
+                // 桶已过期，复用为当前桶
+                next = (bucket << COUNT_BITS) | 1;
+            } else {
+                return true; // 该位置已被更新的桶占用，说明时间点已滑出窗口
+            }
+            if (ring.compareAndSet(index, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 统计键在 (now - windowMillis, now] 内的计数，窗口按桶粒度对齐
+     */
+    public long count(K key, long nowMillis, long windowMillis) {
+        AtomicLongArray ring = windows.get(key);
+        if (ring == null) {
+            return 0;
+        }
+        long nowBucket = nowMillis / bucketMillis;
+        long buckets = Math.min(bucketCount, Math.max(1, (windowMillis + bucketMillis - 1) / bucketMillis));
+        long oldestBucket = nowBucket - buckets + 1;
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long value = ring.get(i);
+            long bucket = value >>> COUNT_BITS;
+            if (bucket >= oldestBucket && bucket <= nowBucket) {
+                total += value & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 移除整个窗口内都没有计数的键，控制内存占用
+     */
+    public void evictIdle(long nowMillis) {
+        long oldestBucket = nowMillis / bucketMillis - bucketCount + 1;
+        windows.entrySet().removeIf(entry -> {
+            AtomicLongArray ring = entry.getValue();
+            for (int i = 0; i < bucketCount; i++) {
+                if ((ring.get(i) >>> COUNT_BITS) >= oldestBucket) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * 当前跟踪的键数量
+     */
+    public int size() {
+        return windows.size();
+    }
+}
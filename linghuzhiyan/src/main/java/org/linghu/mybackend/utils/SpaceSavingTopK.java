@@ -0,0 +1,74 @@
+package org.linghu.mybackend.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 高频键跟踪
+ * 最多保留capacity个候选键；表满时新键替换计数最小的键并继承其计数，
+ * 保证真实频次超过 N/capacity 的键一定在候选集中
+ */
+public class SpaceSavingTopK {
+
+    private final int capacity;
+    private final Map<String, long[]> counters;
+
+    /**
+     * @param capacity 最多跟踪的键数量
+     */
+    public SpaceSavingTopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 键计数加一
+     */
+    public synchronized void add(String key) {
+        long[] counter = counters.get(key);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new long[]{1});
+            return;
+        }
+        // 替换计数最小的候选键
+        String minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                minKey = entry.getKey();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new long[]{minCount + 1});
+    }
+
+    /**
+     * 按计数降序返回当前候选键及其计数上界
+     */
+    public synchronized List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> result = new ArrayList<>(counters.size());
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            result.add(Map.entry(entry.getKey(), entry.getValue()[0]));
+        }
+        result.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return result;
+    }
+
+    /**
+     * 清空全部候选键
+     */
+    public synchronized void clear() {
+        counters.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package org.linghu.mybackend.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * User-Agent分类器
+ * 全部识别规则在构建时编译为一个Aho-Corasick自动机，一次扫描即可得到设备、系统和浏览器；
+ * 解析结果按原始UA字符串缓存在有界LRU中，同一批客户端的重复请求直接命中缓存
+ */
+public class UserAgentClassifier {
+
+    private enum Category { DEVICE, OS, BROWSER, VERSION_HINT }
+
+    /**
+     * 识别规则：命中token后归入对应类别，同类别中priority越小越优先；
+     * versioned为true时从token之后读取版本号
+     */
+    private record Rule(String token, Category category, String name, int priority, boolean versioned) {
+    }
+
+    private static final List<Rule> RULES = List.of(
+            // 设备
+            new Rule("bot", Category.DEVICE, "Bot", 0, false),
+            new Rule("spider", Category.DEVICE, "Bot", 0, false),
+            new Rule("crawler", Category.DEVICE, "Bot", 0, false),
+            new Rule("curl/", Category.DEVICE, "Bot", 0, false),
+            new Rule("python-requests", Category.DEVICE, "Bot", 0, false),
+            new Rule("postman", Category.DEVICE, "Bot", 0, false),
+            new Rule("ipad", Category.DEVICE, "Tablet", 1, false),
+            new Rule("tablet", Category.DEVICE, "Tablet", 1, false),
+            new Rule("mobile", Category.DEVICE, "Mobile", 2, false),
+            new Rule("iphone", Category.DEVICE, "Mobile", 2, false),
+            // 操作系统
+            new Rule("harmonyos", Category.OS, "HarmonyOS", 0, false),
+            new Rule("android ", Category.OS, "Android", 1, true),
+            new Rule("iphone os ", Category.OS, "iOS", 1, true),
+            new Rule("cpu os ", Category.OS, "iOS", 1, true),
+            new Rule("windows nt ", Category.OS, "Windows", 2, true),
+            new Rule("cros", Category.OS, "ChromeOS", 3, false),
+            new Rule("mac os x ", Category.OS, "macOS", 3, true),
+            new Rule("linux", Category.OS, "Linux", 4, false),
+            // 浏览器（内核共用的标识放在后面，如Edge、Opera的UA也包含chrome/）
+            new Rule("edg/", Category.BROWSER, "Edge", 0, true),
+            new Rule("edge/", Category.BROWSER, "Edge", 0, true),
+            new Rule("opr/", Category.BROWSER, "Opera", 1, true),
+            new Rule("micromessenger/", Category.BROWSER, "WeChat", 1, true),
+            new Rule("dingtalk/", Category.BROWSER, "DingTalk", 1, true),
+            new Rule("qqbrowser/", Category.BROWSER, "QQBrowser", 1, true),
+            new Rule("ucbrowser/", Category.BROWSER, "UC", 1, true),
+            new Rule("firefox/", Category.BROWSER, "Firefox", 2, true),
+            new Rule("fxios/", Category.BROWSER, "Firefox", 2, true),
+            new Rule("chrome/", Category.BROWSER, "Chrome", 3, true),
+            new Rule("crios/", Category.BROWSER, "Chrome", 3, true),
+            new Rule("safari/", Category.BROWSER, "Safari", 4, false),
+            new Rule("msie ", Category.BROWSER, "IE", 5, true),
+            new Rule("trident/", Category.BROWSER, "IE", 6, false),
+            // Safari的版本号位于 Version/x.y
+            new Rule("version/", Category.VERSION_HINT, null, 0, true)
+    );
+
+    private final AhoCorasickMatcher matcher;
+    private final LruCache<String, UserAgentInfo> cache;
+
+    /**
+     * @param cacheSize 解析结果缓存容量
+     */
+    public UserAgentClassifier(int cacheSize) {
+        List<String> tokens = new ArrayList<>(RULES.size());
+        for (Rule rule : RULES) {
+            tokens.add(rule.token());
+        }
+        this.matcher = new AhoCorasickMatcher(tokens);
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * 解析User-Agent，结果按原始字符串缓存
+     */
+    public UserAgentInfo classify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        return cache.computeIfAbsent(userAgent, this::parse);
+    }
+
+    /**
+     * 解析结果缓存，供注册监控指标
+     */
+    public LruCache<String, UserAgentInfo> getCache() {
+        return cache;
+    }
+
+    private UserAgentInfo parse(String userAgent) {
+        int[] best = new int[Category.values().length];
+        int[] bestEnd = new int[Category.values().length];
+        Arrays.fill(best, -1);
+        matcher.match(userAgent, (patternIndex, end) -> {
+            int category = RULES.get(patternIndex).category().ordinal();
+            int current = best[category];
+            if (current < 0 || RULES.get(patternIndex).priority() < RULES.get(current).priority()) {
+                best[category] = patternIndex;
+                bestEnd[category] = end;
+            }
+        });
+
+        Rule deviceRule = rule(best, Category.DEVICE);
+        Rule osRule = rule(best, Category.OS);
+        Rule browserRule = rule(best, Category.BROWSER);
+
+        String device;
+        if (deviceRule != null) {
+            device = deviceRule.name();
+        } else if (osRule != null && "Android".equals(osRule.name())) {
+            // Android UA不含Mobile时通常为平板
+            device = "Tablet";
+        } else {
+            device = osRule != null || browserRule != null ? "Desktop" : "unknown";
+        }
+
+        String osVersion = null;
+        if (osRule != null && osRule.versioned()) {
+            osVersion = readVersion(userAgent, bestEnd[Category.OS.ordinal()]);
+        }
+
+        String browserVersion = null;
+        if (browserRule != null) {
+            if (browserRule.versioned()) {
+                browserVersion = readVersion(userAgent, bestEnd[Category.BROWSER.ordinal()]);
+            } else if ("Safari".equals(browserRule.name()) && best[Category.VERSION_HINT.ordinal()] >= 0) {
+                browserVersion = readVersion(userAgent, bestEnd[Category.VERSION_HINT.ordinal()]);
+            }
+        }
+
+        return new UserAgentInfo(device,
+                osRule == null ? null : osRule.name(), osVersion,
+                browserRule == null ? null : browserRule.name(), browserVersion);
+    }
+
+    private static Rule rule(int[] best, Category category) {
+        int index = best[category.ordinal()];
+        return index < 0 ? null : RULES.get(index);
+    }
+
+    // 读取形如 10.0、17_2_1 的版本号，下划线统一为点
+    private static String readVersion(String userAgent, int start) {
+        int end = start;
+        while (end < userAgent.length()) {
+            char c = userAgent.charAt(end);
+            if (!Character.isDigit(c) && c != '.' && c != '_') {
+                break;
+            }
+            end++;
+        }
+        return end == start ? null : userAgent.substring(start, end).replace('_', '.');
+    }
+}
@@ -0,0 +1,49 @@
+package org.linghu.mybackend.utils;
+
+/**
+ * User-Agent解析结果
+ *
+ * @param device 设备类型：Desktop、Mobile、Tablet、Bot或unknown
+ * @param os 操作系统名称，未识别时为null
+ * @param osVersion 操作系统版本，未识别时为null
+ * @param browser 浏览器名称，未识别时为null
+ * @param browserVersion 浏览器版本，未识别时为null
+ */
+public record UserAgentInfo(String device, String os, String osVersion, String browser, String browserVersion) {
+
+    // 与login_logs.device_type列宽一致
+    private static final int DEVICE_TYPE_MAX_LENGTH = 30;
+
+    public static final UserAgentInfo UNKNOWN = new UserAgentInfo("unknown", null, null, null, null);
+
+    /**
+     * 紧凑的设备描述，形如 "Mobile/Android 14/Chrome 120"，版本只保留主版本号
+     */
+    public String toDeviceType() {
+        StringBuilder builder = new StringBuilder(device);
+        if (os != null) {
+            builder.append('/').append(os);
+            appendMajorVersion(builder, osVersion);
+        }
+        if (browser != null) {
+            builder.append('/').append(browser);
+            appendMajorVersion(builder, browserVersion);
+        }
+        return builder.length() <= DEVICE_TYPE_MAX_LENGTH
+                ? builder.toString()
+                : builder.substring(0, DEVICE_TYPE_MAX_LENGTH);
+    }
+
+    private static void appendMajorVersion(StringBuilder builder, String version) {
+        if (version == null || version.isEmpty()) {
+            return;
+        }
+        int end = 0;
+        while (end < version.length() && Character.isDigit(version.charAt(end))) {
+            end++;
+        }
+        if (end > 0) {
+            builder.append(' ').append(version, 0, end);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- 登录日志字典表：保存大量重复的文本，日志行只引用其ID
+CREATE TABLE IF NOT EXISTS login_log_dictionary (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(20) NOT NULL,
+    value_hash VARCHAR(40) NOT NULL,
+    value TEXT NOT NULL,
+
+    UNIQUE KEY uk_dictionary_kind_hash (kind, value_hash)
+);
+
+-- 登录日志改为引用字典ID，login_info与failure_reason仅保留给历史数据和字典不可用时的降级写入
+ALTER TABLE login_logs
+    ADD COLUMN request_method VARCHAR(10),
+    ADD COLUMN user_agent_id INT,
+    ADD COLUMN referer_id INT,
+    ADD COLUMN uri_id INT,
+    ADD COLUMN failure_reason_id INT;
+
+-- 注释说明
+COMMENT ON TABLE login_log_dictionary IS '登录日志字典表';
+COMMENT ON COLUMN login_log_dictionary.kind IS '字典类别：USER_AGENT、REFERER、URI、FAILURE_REASON';
+COMMENT ON COLUMN login_log_dictionary.value_hash IS '值的SHA-1摘要，用于唯一约束';
+COMMENT ON COLUMN login_log_dictionary.value IS '原始文本';
@@ -0,0 +1,21 @@
+-- 登录统计汇总表：按小时/天累加的登录次数，由内存中的分钟计数定时增量写入
+CREATE TABLE IF NOT EXISTS login_stats_rollup (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    device_type VARCHAR(20) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    failure_reason VARCHAR(64) NOT NULL,
+    count BIGINT NOT NULL,
+
+    UNIQUE KEY uk_rollup_bucket_dimensions (granularity, bucket_start, status, device_type, role, failure_reason)
+);
+
+-- 注释说明
+COMMENT ON TABLE login_stats_rollup IS '登录统计汇总表';
+COMMENT ON COLUMN login_stats_rollup.granularity IS '汇总粒度：HOUR、DAY';
+COMMENT ON COLUMN login_stats_rollup.bucket_start IS '时间桶起点';
+COMMENT ON COLUMN login_stats_rollup.device_type IS '设备大类，无则为-';
+COMMENT ON COLUMN login_stats_rollup.role IS '用户主要角色，无则为-';
+COMMENT ON COLUMN login_stats_rollup.failure_reason IS '失败原因类别，无则为-';
@@ -0,0 +1,2 @@
+-- 用户目录游标分页按 (created_at, id) 倒序定位，避免 OFFSET 扫描
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
@@ -0,0 +1,2 @@
+-- 按角色筛选用户时从 role_id 定位关联行，再按主键连接 users
+CREATE INDEX idx_user_roles_role_user ON user_roles (role_id, user_id);
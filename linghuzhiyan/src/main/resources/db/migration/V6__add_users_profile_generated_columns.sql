@@ -0,0 +1,13 @@
+-- 将常用的个人资料字段暴露为虚拟生成列并建立索引，按学校、专业、真实姓名筛选时无需逐行解析JSON
+-- 生成列按列宽截断，避免超长的资料值导致写入失败
+ALTER TABLE users
+    ADD COLUMN profile_school VARCHAR(100)
+        GENERATED ALWAYS AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.school')), 100)) VIRTUAL,
+    ADD COLUMN profile_major VARCHAR(100)
+        GENERATED ALWAYS AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.major')), 100)) VIRTUAL,
+    ADD COLUMN profile_real_name VARCHAR(50)
+        GENERATED ALWAYS AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(profile, '$.realName')), 50)) VIRTUAL;
+
+CREATE INDEX idx_users_profile_school_major ON users (profile_school, profile_major);
+CREATE INDEX idx_users_profile_major ON users (profile_major);
+CREATE INDEX idx_users_profile_real_name ON users (profile_real_name);
@@ -0,0 +1,17 @@
+-- 将登录日志表改为按月RANGE分区（可选，手动执行）
+-- 分区后过期月份可通过 DROP PARTITION 整体删除，需同时设置 login-log.retention.partitioned=true
+-- 注意：分区表的主键必须包含分区列，执行前请在维护窗口内评估表大小与锁表时间
+
+-- RANGE COLUMNS 不支持 TIMESTAMP，先统一为 DATETIME
+ALTER TABLE login_logs MODIFY created_at DATETIME(6) NOT NULL;
+
+ALTER TABLE login_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+-- 按实际数据范围调整起始月份，后续月份由保留清理任务自动从 pmax 中拆分
+ALTER TABLE login_logs
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01 00:00:00'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01 00:00:00'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01 00:00:00'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
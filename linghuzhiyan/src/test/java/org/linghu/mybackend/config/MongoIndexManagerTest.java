@@ -0,0 +1,36 @@
+package org.linghu.mybackend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+public class MongoIndexManagerTest {
+
+    @Test
+    void shouldAcceptIndexScanProvidingSort() {
+        Document explain = Document.parse("{queryPlanner: {winningPlan: {stage: 'LIMIT', inputStage: "
+                + "{stage: 'FETCH', inputStage: {stage: 'IXSCAN', indexName: 'status_priority_createTime'}}}}}");
+
+        assertTrue(MongoIndexManager.findPlanProblems(explain).isEmpty());
+    }
+
+    @Test
+    void shouldReportCollectionScanAndBlockingSort() {
+        Document explain = Document.parse("{queryPlanner: {winningPlan: {stage: 'SORT', inputStage: "
+                + "{stage: 'COLLSCAN', filter: {deleted: {$eq: false}}}}}}");
+
+        assertEquals(List.of("SORT", "COLLSCAN"), MongoIndexManager.findPlanProblems(explain));
+    }
+
+    @Test
+    void shouldWalkSlotBasedPlanShape() {
+        Document explain = Document.parse("{queryPlanner: {winningPlan: {queryPlan: {stage: 'SORT', inputStage: "
+                + "{stage: 'OR', inputStages: [{stage: 'IXSCAN'}, {stage: 'COLLSCAN'}]}}, slotBasedPlan: {}}}}");
+
+        assertEquals(List.of("SORT", "COLLSCAN"), MongoIndexManager.findPlanProblems(explain));
+    }
+}
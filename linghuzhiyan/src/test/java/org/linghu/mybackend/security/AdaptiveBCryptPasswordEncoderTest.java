@@ -0,0 +1,21 @@
+package org.linghu.mybackend.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    @Test
+    void shouldRequestRehashOnlyBelowMinimumCost() {
+        String weaker = new AdaptiveBCryptPasswordEncoder(4, 4).encode("secret");
+        String calibratedElsewhere = new AdaptiveBCryptPasswordEncoder(6, 5).encode("secret");
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5, 5);
+
+        assertTrue(encoder.upgradeEncoding(weaker));
+        assertFalse(encoder.upgradeEncoding(calibratedElsewhere));
+        assertFalse(new AdaptiveBCryptPasswordEncoder(6, 5).upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.matches("secret", calibratedElsewhere));
+    }
+}
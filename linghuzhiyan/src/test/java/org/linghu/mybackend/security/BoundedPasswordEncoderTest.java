@@ -0,0 +1,106 @@
+package org.linghu.mybackend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.exception.ServiceBusyException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class BoundedPasswordEncoderTest {
+
+    @Test
+    void shouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 5000, registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash:b"));
+        while (registry.get("password.hash.queue.size").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("c"));
+
+        release.countDown();
+        assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get("password.hash.rejected").counter().count());
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldRejectWithoutWaitingWhenEstimatedWaitExceedsTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(slow, 1, 10, 150, registry);
+
+        // 先完成一次约100ms的校验；之后一个执行、一个排队时预计等待约200ms，超过150ms的超时时间
+        assertTrue(encoder.matches("a", "x"));
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (registry.get("password.hash.active").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("d"));
+        while (registry.get("password.hash.queue.size").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        long start = System.nanoTime();
+        assertThrows(ServiceBusyException.class, () -> encoder.matches("c", "x"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 150);
+        assertEquals(1.0, registry.get("password.hash.queue.size").gauge().value());
+
+        release.countDown();
+        running.exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+        queued.exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+        encoder.shutdown();
+    }
+}
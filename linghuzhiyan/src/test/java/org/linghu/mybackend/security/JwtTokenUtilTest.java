@@ -0,0 +1,98 @@
+package org.linghu.mybackend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+public class JwtTokenUtilTest {
+
+    private static final String SECRET = "test-secret-key-must-be-at-least-64-bytes-long-for-hs512-signing-ok";
+
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        jwtTokenUtil.setSecret(SECRET);
+        jwtTokenUtil.setExpiration(60_000);
+        userDetails = new User("testuser", "pwd", Collections.emptyList());
+    }
+
+    @Test
+    void shouldReuseVerifiedTokenForRepeatedCalls() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        VerifiedToken first = jwtTokenUtil.verifyToken(token);
+        VerifiedToken second = jwtTokenUtil.verifyToken(token);
+
+        assertSame(first, second);
+        assertEquals("testuser", first.getSubject());
+        assertTrue(jwtTokenUtil.validateToken(first, userDetails));
+        assertTrue(jwtTokenUtil.validateToken(token, userDetails));
+    }
+
+    @Test
+    void shouldAssignUniqueTokenIds() {
+        VerifiedToken first = jwtTokenUtil.verifyToken(jwtTokenUtil.generateToken(userDetails));
+        VerifiedToken second = jwtTokenUtil.verifyToken(jwtTokenUtil.generateToken(userDetails));
+
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithDifferentKey() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        JwtTokenUtil other = new JwtTokenUtil();
+        other.setSecret(SECRET + "-other");
+        other.setExpiration(60_000);
+
+        assertThrows(JwtException.class, () -> other.verifyToken(token));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        jwtTokenUtil.setExpiration(-1_000);
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenUtil.verifyToken(token));
+    }
+
+    @Test
+    void shouldNotValidateTokenOfAnotherUser() {
+        String token = jwtTokenUtil.generateToken(userDetails);
+        UserDetails otherUser = new User("other", "pwd", Collections.emptyList());
+
+        assertFalse(jwtTokenUtil.validateToken(jwtTokenUtil.verifyToken(token), otherUser));
+    }
+
+    @Test
+    void shouldEmbedRolesAndTokenVersion() {
+        UserDetails student = new User("student", "pwd",
+                List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        String token = jwtTokenUtil.generateToken(student, 3);
+
+        VerifiedToken verified = jwtTokenUtil.verifyToken(token);
+
+        assertEquals(List.of("ROLE_STUDENT"), verified.getRoles());
+        assertEquals(3, verified.getTokenVersion());
+    }
+}
@@ -0,0 +1,57 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.Comment;
+import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.dto.CommentResponseDTO;
+import org.linghu.mybackend.repository.CommentRepository;
+import org.linghu.mybackend.repository.DiscussionRepository;
+import org.linghu.mybackend.service.ReactionService;
+import org.linghu.mybackend.service.UserService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+public class CommentServiceImplTest {
+
+    private final DiscussionRepository discussionRepository = mock(DiscussionRepository.class);
+    private final ReactionService reactionService = mock(ReactionService.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CommentServiceImpl commentService = new CommentServiceImpl(mock(CommentRepository.class),
+            discussionRepository, mock(UserService.class), reactionService, mongoTemplate);
+
+    @Test
+    void sparseRootOnlyPageShouldStillGroupRepliesByRoot() {
+        when(discussionRepository.findByIdAndNotDeleted("d1")).thenReturn(Optional.of(new Discussion()));
+        when(mongoTemplate.count(any(Query.class), eq(Comment.class))).thenReturn(1L);
+        when(reactionService.findReactions(any(), anyString())).thenReturn(Map.of());
+        // 模拟投影：只有查询字段中包含rootId时才返回rootId
+        when(mongoTemplate.find(any(Query.class), eq(Comment.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            if (!query.getQueryObject().containsKey("rootId")) {
+                return List.of(Comment.builder().id("c1").content("root").build());
+            }
+            String rootId = query.getFieldsObject().containsKey("rootId") ? "c1" : null;
+            return List.of(Comment.builder().id("r1").content("reply").rootId(rootId).build());
+        });
+
+        Page<CommentResponseDTO> page = commentService.getCommentsByDiscussionId(
+                "d1", true, null, null, 0, 10, "summary", "content", "u1");
+
+        assertEquals(1, page.getContent().size());
+        List<CommentResponseDTO> replies = page.getContent().get(0).getReplies();
+        assertEquals(1, replies.size());
+        assertEquals("reply", replies.get(0).getContent());
+    }
+}
@@ -0,0 +1,49 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.exception.InvalidCursorException;
+
+public class DiscussionCursorTest {
+
+    @Test
+    void shouldRoundTripCursorForTimeSort() {
+        Discussion discussion = Discussion.builder()
+                .id("665f1c2ab1e4a23c4d5e6f70")
+                .priority(1)
+                .lastActivityTime(LocalDateTime.of(2024, 5, 1, 8, 30, 15))
+                .build();
+
+        String encoded = DiscussionCursor.after(discussion, "lastActivityTime", false).encode();
+        DiscussionCursor decoded = DiscussionCursor.decode(encoded, "lastActivityTime", false);
+
+        assertEquals(1, decoded.priority());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 30, 15), decoded.value());
+        assertEquals("665f1c2ab1e4a23c4d5e6f70", decoded.id());
+    }
+
+    @Test
+    void shouldRejectCursorFromDifferentSortOrGarbage() {
+        Discussion discussion = Discussion.builder().id("a").priority(0).likeCount(3L).build();
+        String encoded = DiscussionCursor.after(discussion, "likeCount", false).encode();
+
+        assertThrows(InvalidCursorException.class, () -> DiscussionCursor.decode(encoded, "likeCount", true));
+        assertThrows(InvalidCursorException.class, () -> DiscussionCursor.decode(encoded, "viewCount", false));
+        assertThrows(InvalidCursorException.class, () -> DiscussionCursor.decode("%%%", "likeCount", false));
+    }
+
+    @Test
+    void shouldSeekPastLastRowIncludingNullsForDescendingSort() {
+        Document criteria = new DiscussionCursor("likeCount", false, 0, 3L, "a").toCriteria().getCriteriaObject();
+
+        assertEquals(Document.parse("{\"$or\": [{\"priority\": {\"$lt\": 0}}, {\"priority\": 0, \"$and\": [{\"$or\": ["
+                + "{\"likeCount\": {\"$lt\": 3}}, {\"likeCount\": null}, {\"likeCount\": 3, \"_id\": {\"$lt\": \"a\"}}]}]}]}")
+                .toJson(), criteria.toJson());
+    }
+}
@@ -0,0 +1,79 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.constants.SystemConstants;
+import org.linghu.mybackend.domain.Discussion;
+import org.linghu.mybackend.dto.DiscussionResponseDTO;
+import org.linghu.mybackend.exception.InvalidPageSizeException;
+import org.linghu.mybackend.repository.DiscussionRepository;
+import org.linghu.mybackend.service.ReactionService;
+import org.linghu.mybackend.service.UserService;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DiscussionServiceImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ReactionService reactionService = mock(ReactionService.class);
+    private final DiscussionServiceImpl discussionService = new DiscussionServiceImpl(
+            mock(DiscussionRepository.class), mock(UserService.class), reactionService,
+            mock(ViewCountAggregator.class), mongoTemplate, new SimpleMeterRegistry());
+
+    @Test
+    void cursorPageShouldRejectNonPositiveSize() {
+        assertThrows(InvalidPageSizeException.class, () -> discussionService.getDiscussionsByCursor(
+                null, null, null, null, null, null, null, null, 0, false, "summary", null, null));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void cursorPageShouldCapSize() {
+        when(mongoTemplate.find(any(Query.class), eq(Discussion.class))).thenReturn(List.of());
+
+        discussionService.getDiscussionsByCursor(
+                null, null, null, null, null, null, null, null, 10_000, false, "summary", null, null);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Discussion.class));
+        assertEquals(SystemConstants.MAX_PAGE_SIZE + 1, query.getValue().getLimit());
+    }
+
+    @Test
+    void sparseFieldsShouldLeaveUnselectedFieldsNull() {
+        // 投影外的字段在实体中仍是默认值
+        when(mongoTemplate.find(any(Query.class), eq(Discussion.class)))
+                .thenReturn(List.of(Discussion.builder().id("d1").title("hello").build()));
+        when(reactionService.findReactions(any(), any())).thenReturn(Map.of());
+
+        DiscussionResponseDTO dto = discussionService.getDiscussionsByCursor(
+                null, null, null, null, null, null, null, null, 10, false, "summary", "title,isLiked", "u1")
+                .getList().get(0);
+
+        assertEquals("d1", dto.getId());
+        assertEquals("hello", dto.getTitle());
+        assertNotNull(dto.getIsLiked());
+        assertNull(dto.getReactionCounts());
+        assertNull(dto.getMyReactions());
+        assertNull(dto.getAttachments());
+        assertNull(dto.getLikeCount());
+        assertNull(dto.getViewCount());
+        assertNull(dto.getStatus());
+    }
+}
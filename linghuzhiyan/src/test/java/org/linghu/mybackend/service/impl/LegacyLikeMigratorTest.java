@@ -0,0 +1,101 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.Reaction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+
+public class LegacyLikeMigratorTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> migrations = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> reactions = mock(MongoCollection.class);
+    private final LegacyLikeMigrator migrator = new LegacyLikeMigrator(mongoTemplate);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(migrator, "enabled", true);
+        when(mongoTemplate.getCollection("migrations")).thenReturn(migrations);
+        FindIterable<Document> noMarker = iterable(List.of());
+        when(migrations.find(any(Bson.class))).thenReturn(noMarker);
+        when(mongoTemplate.getCollectionName(Reaction.class)).thenReturn("reactions");
+        when(mongoTemplate.getCollection("reactions")).thenReturn(reactions);
+        MongoCollection<Document> discussions = collection(
+                List.of(new Document("_id", "d1").append("likedBy", List.of("u1", "u2"))));
+        MongoCollection<Document> comments = collection(List.of());
+        when(mongoTemplate.getCollection("discussions")).thenReturn(discussions);
+        when(mongoTemplate.getCollection("comments")).thenReturn(comments);
+    }
+
+    @Test
+    void duplicateKeyErrorsFromConcurrentStartShouldCountAsMigrated() {
+        when(reactions.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(bulkWriteException(11000));
+
+        migrator.migrateOnStartup();
+
+        verify(migrations).insertOne(any(Document.class));
+    }
+
+    @Test
+    void otherWriteErrorsShouldAbortStartup() {
+        when(reactions.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(bulkWriteException(121));
+
+        assertThrows(IllegalStateException.class, migrator::migrateOnStartup);
+    }
+
+    private static MongoBulkWriteException bulkWriteException(int code) {
+        BulkWriteError error = new BulkWriteError(code, "error", new BsonDocument(), 0);
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error), null,
+                new ServerAddress(), Set.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MongoCollection<Document> collection(List<Document> documents) {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> found = iterable(documents);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        return collection;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FindIterable<Document> iterable(List<Document> documents) {
+        FindIterable<Document> iterable = mock(FindIterable.class);
+        when(iterable.projection(any())).thenReturn(iterable);
+        when(iterable.first()).thenReturn(documents.isEmpty() ? null : documents.get(0));
+        when(iterable.iterator()).thenAnswer(invocation -> {
+            var source = documents.iterator();
+            MongoCursor<Document> cursor = mock(MongoCursor.class);
+            when(cursor.hasNext()).thenAnswer(call -> source.hasNext());
+            when(cursor.next()).thenAnswer(call -> source.next());
+            return cursor;
+        });
+        return iterable;
+    }
+}
@@ -0,0 +1,85 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.LoginLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoginLogDictionaryTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LoginLogDictionary dictionary = new LoginLogDictionary(jdbcTemplate,
+            mock(NamedParameterJdbcTemplate.class), new SimpleMeterRegistry());
+
+    private void init(int maxEntriesPerKind) {
+        ReflectionTestUtils.setField(dictionary, "cacheSize", 100);
+        ReflectionTestUtils.setField(dictionary, "valueMaxLength", 64);
+        ReflectionTestUtils.setField(dictionary, "maxEntriesPerKind", maxEntriesPerKind);
+        dictionary.init();
+    }
+
+    @Test
+    void shouldEncodeOnlyReasonCategoryAndKeepDetailInRow() {
+        init(100);
+        when(jdbcTemplate.update(anyString(), any(), any(), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any())).thenReturn(List.of(7));
+        LoginLog loginLog = LoginLog.builder().failureReason("用户名不存在: bob").build();
+
+        dictionary.encode(loginLog);
+
+        verify(jdbcTemplate).update(anyString(), eq("FAILURE_REASON"), any(), eq("用户名不存在"));
+        assertEquals(7, loginLog.getFailureReasonId());
+        assertEquals("bob", loginLog.getFailureReason());
+
+        dictionary.decode(List.of(loginLog));
+        assertEquals("用户名不存在: bob", loginLog.getFailureReason());
+    }
+
+    @Test
+    void shouldKeepRawTextWhenKindIsFull() {
+        init(0);
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), any(), any())).thenReturn(List.of());
+        String loginInfo = "{\"userAgent\":\"Mozilla/5.0 (a very long agent)\",\"referer\":null,"
+                + "\"method\":\"POST\",\"uri\":\"/api/auth/login\"}";
+        LoginLog loginLog = LoginLog.builder().loginInfo(loginInfo).build();
+
+        dictionary.encode(loginLog);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any());
+        verify(jdbcTemplate).queryForList(anyString(), eq(Integer.class), eq("USER_AGENT"), any());
+        assertNull(loginLog.getUserAgentId());
+        assertEquals(loginInfo, loginLog.getLoginInfo());
+    }
+
+    @Test
+    void shouldKeepRawTextWhenValueIsTooLong() {
+        init(100);
+        String loginInfo = "{\"userAgent\":\"Mozilla/5.0\",\"referer\":\"https://example.com/login?"
+                + "next=/discussions/0123456789abcdef0123456789abcdef\",\"method\":\"POST\","
+                + "\"uri\":\"/api/auth/login\"}";
+        LoginLog loginLog = LoginLog.builder().loginInfo(loginInfo).build();
+
+        dictionary.encode(loginLog);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any());
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Integer.class), any(), any());
+        assertNull(loginLog.getUserAgentId());
+        assertNull(loginLog.getRefererId());
+        assertEquals(loginInfo, loginLog.getLoginInfo());
+    }
+}
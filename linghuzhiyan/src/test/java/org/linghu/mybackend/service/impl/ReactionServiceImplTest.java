@@ -0,0 +1,74 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.Reaction;
+import org.linghu.mybackend.domain.Reaction.TargetType;
+import org.linghu.mybackend.domain.ReactionType;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.result.DeleteResult;
+
+public class ReactionServiceImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ReactionServiceImpl reactionService = new ReactionServiceImpl(mongoTemplate);
+
+    @Test
+    void toggleShouldRemoveExistingReaction() {
+        when(mongoTemplate.remove(any(Query.class), eq(Reaction.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        assertEquals(-1, reactionService.toggle(TargetType.DISCUSSION, "d1", "u1", ReactionType.LIKE));
+        verify(mongoTemplate, never()).insert(any(Reaction.class));
+    }
+
+    @Test
+    void toggleShouldInsertMissingReaction() {
+        when(mongoTemplate.remove(any(Query.class), eq(Reaction.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        assertEquals(1, reactionService.toggle(TargetType.COMMENT, "c1", "u1", ReactionType.HELPFUL));
+        verify(mongoTemplate).insert(any(Reaction.class));
+    }
+
+    @Test
+    void toggleShouldNotCountConcurrentDuplicateInsert() {
+        when(mongoTemplate.remove(any(Query.class), eq(Reaction.class))).thenReturn(DeleteResult.acknowledged(0));
+        when(mongoTemplate.insert(any(Reaction.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertEquals(0, reactionService.toggle(TargetType.DISCUSSION, "d1", "u1", ReactionType.LIKE));
+    }
+
+    @Test
+    void findReactionsShouldGroupByTargetAndSkipAnonymousUsers() {
+        when(mongoTemplate.find(any(Query.class), eq(Reaction.class))).thenReturn(List.of(
+                Reaction.builder().targetId("d1").type(ReactionType.LIKE).build(),
+                Reaction.builder().targetId("d1").type(ReactionType.HELPFUL).build(),
+                Reaction.builder().targetId("d2").type(ReactionType.LIKE).build()));
+
+        Map<String, Set<ReactionType>> reactions = reactionService.findReactions(List.of("d1", "d2", "d3"), "u1");
+
+        assertEquals(Set.of(ReactionType.LIKE, ReactionType.HELPFUL), reactions.get("d1"));
+        assertEquals(Set.of(ReactionType.LIKE), reactions.get("d2"));
+        assertTrue(reactionService.findReactions(List.of("d1"), null).isEmpty());
+    }
+
+    @Test
+    void countsOfShouldMergeLikeCountWithOtherTypes() {
+        assertEquals(Map.of("LIKE", 3L, "HELPFUL", 2L),
+                ReactionServiceImpl.countsOf(3, Map.of("HELPFUL", 2L, "CONFUSED", 0L)));
+    }
+}
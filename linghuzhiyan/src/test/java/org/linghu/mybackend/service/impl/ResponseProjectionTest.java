@@ -0,0 +1,43 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.exception.InvalidFieldsException;
+
+public class ResponseProjectionTest {
+
+    private final ResponseProjection projection = new ResponseProjection(
+            Set.of("id", "title", "content", "richContent", "likeCount", "isLiked", "reactionCounts"),
+            List.of("content", "richContent"));
+
+    @Test
+    void summaryShouldExcludeHeavyFields() {
+        assertEquals(Document.parse("{content: 0, richContent: 0}"), projection.build("summary", null, List.of()));
+        assertEquals(Document.parse("{content: 0, richContent: 0}"), projection.build(null, null, List.of()));
+    }
+
+    @Test
+    void fullViewShouldReadWholeDocument() {
+        assertNull(projection.build("FULL", null, List.of()));
+    }
+
+    @Test
+    void sparseFieldsShouldIncludeRequestedAndRequiredFields() {
+        Document result = projection.build("full", " id,title , isLiked,reactionCounts", List.of("priority", "title"));
+
+        assertEquals(Document.parse("{_id: 1, title: 1, reactionCounts: 1, likeCount: 1, priority: 1}"), result);
+    }
+
+    @Test
+    void shouldRejectUnknownFieldsAndViews() {
+        assertThrows(InvalidFieldsException.class, () -> projection.build(null, "title,password", List.of()));
+        assertThrows(InvalidFieldsException.class, () -> projection.build("compact", null, List.of()));
+    }
+}
@@ -0,0 +1,90 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.dto.UserImportResultDTO;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserBulkImporterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private UserBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        namedParameterJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hash:" + invocation.getArgument(0));
+
+        importer = new UserBulkImporter(jdbcTemplate, namedParameterJdbcTemplate, transactionManager,
+                passwordEncoder, mock(UsernameAutocompleteIndex.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(importer, "chunkSize", 100);
+        ReflectionTestUtils.setField(importer, "hashThreads", 2);
+        importer.init();
+    }
+
+    @Test
+    void shouldImportValidRowsInOneBatchAndReportRowErrors() throws Exception {
+        String csv = "username,email,password,realName,school\n"
+                + "student01,s01@example.com,secret01,\"Zhang, San\",SJTU\n"
+                + "student02,not-an-email,secret02,,\n"
+                + "\n"
+                + "STUDENT01,s03@example.com,secret03,,\n"
+                + "student04,s04@example.com,secret04,,\n";
+
+        UserImportResultDTO result = importer.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserBulkImporter.Format.CSV,
+                "ROLE_STUDENT");
+
+        assertEquals(4, result.getTotal());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals(5, result.getErrors().get(1).getLine());
+
+        // 每块一次冲突检查查询、一次users批量插入、一次user_roles批量插入
+        verify(namedParameterJdbcTemplate, times(1))
+                .query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> users = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO users "
+                + "(id, username, email, password, profile, created_at, updated_at, is_deleted, token_version) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)"), users.capture());
+        assertEquals(2, users.getValue().size());
+        assertEquals("hash:secret01", users.getValue().get(0)[3]);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void shouldParseQuotedCsvFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), UserBulkImporter.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+}
@@ -0,0 +1,217 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.constants.SystemConstants;
+import org.linghu.mybackend.domain.User;
+import org.linghu.mybackend.domain.UserRoleRelation;
+import org.linghu.mybackend.dto.CursorPageResult;
+import org.linghu.mybackend.dto.LoginRequestDTO;
+import org.linghu.mybackend.dto.LoginResponseDTO;
+import org.linghu.mybackend.dto.UserDTO;
+import org.linghu.mybackend.dto.UserDirectoryEntryDTO;
+import org.linghu.mybackend.exception.UserException;
+import org.linghu.mybackend.repository.RoleRepository;
+import org.linghu.mybackend.repository.UserRepository;
+import org.linghu.mybackend.repository.UserRoleRepository;
+import org.linghu.mybackend.security.JwtTokenUtil;
+import org.linghu.mybackend.service.LoginLogService;
+import org.linghu.mybackend.service.TokenRevocationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserServiceImplTest {
+
+    private UserRepository userRepository;
+    private UserRoleRepository userRoleRepository;
+    private PasswordEncoder passwordEncoder;
+    private JwtTokenUtil jwtTokenUtil;
+    private LoginLogService loginLogService;
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userRoleRepository = mock(UserRoleRepository.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        jwtTokenUtil = mock(JwtTokenUtil.class);
+        loginLogService = mock(LoginLogService.class);
+
+        UserDomainServiceImpl userDomainService = new UserDomainServiceImpl(userRepository,
+                mock(RoleRepository.class), userRoleRepository, mock(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userDomainService, "roleCacheSize", 16);
+        ReflectionTestUtils.setField(userDomainService, "roleCacheTtlSeconds", 600L);
+        ReflectionTestUtils.setField(userDomainService, "tokenVersionCacheSize", 16);
+        ReflectionTestUtils.setField(userDomainService, "tokenVersionCacheTtlSeconds", 30L);
+        userDomainService.initCaches();
+
+        userService = new UserServiceImpl(userDomainService, jwtTokenUtil, passwordEncoder,
+                loginLogService, mock(TokenRevocationService.class), mock(UsernameAutocompleteIndex.class),
+                mock(UserBulkImporter.class));
+        ReflectionTestUtils.setField(userService, "tokenHead", "Bearer ");
+        ReflectionTestUtils.setField(userService, "expiration", 3600000L);
+    }
+
+    @Test
+    void loginShouldLoadUserAndRolesWithSingleQuery() {
+        User user = user();
+        when(userRepository.findWithRoleIdsByUsername("alice")).thenReturn(List.of(
+                new Object[]{user, "ROLE_STUDENT"}, new Object[]{user, "ROLE_ASSISTANT"}));
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        when(jwtTokenUtil.generateToken(anyString(), any(), any())).thenReturn("token");
+
+        LoginResponseDTO response = userService.login(request("alice", "secret", "STUDENT"));
+
+        assertEquals("token", response.getToken());
+        assertEquals(Set.of("ROLE_STUDENT", "ROLE_ASSISTANT"), response.getUser().getRoles());
+        verify(userRepository, times(1)).findWithRoleIdsByUsername("alice");
+        verify(userRepository, never()).findByUsername(anyString());
+        verifyNoInteractions(userRoleRepository);
+        verify(loginLogService).logSuccessfulLogin(any(), any(), any(), any());
+    }
+
+    @Test
+    void loginShouldRehashWithConditionalUpdateInsteadOfSavingUser() {
+        User user = user();
+        List<Object[]> rows = List.<Object[]>of(new Object[]{user, "ROLE_STUDENT"});
+        when(userRepository.findWithRoleIdsByUsername("alice")).thenReturn(rows);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("hash")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("new-hash");
+        when(jwtTokenUtil.generateToken(anyString(), any(), any())).thenReturn("token");
+
+        userService.login(request("alice", "secret", "STUDENT"));
+
+        verify(userRepository).updatePasswordIfUnchanged("u1", "hash", "new-hash");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void loginShouldStillHashWhenUserIsMissing() {
+        when(userRepository.findWithRoleIdsByUsername("ghost")).thenReturn(List.of());
+        when(passwordEncoder.encode(anyString())).thenReturn("dummy");
+
+        assertThrows(UserException.class, () -> userService.login(request("ghost", "secret", null)));
+
+        verify(passwordEncoder).matches("secret", "dummy");
+        verify(loginLogService).logFailedLogin(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void listUsersShouldLoadRolesForWholePageWithSingleQuery() {
+        List<User> users = List.of(user("u1", "alice"), user("u2", "bob"), user("u3", "carol"));
+        when(userRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(users));
+        when(userRoleRepository.findByIdUserIdIn(any())).thenReturn(List.of(
+                new UserRoleRelation("u1", "ROLE_ADMIN"), new UserRoleRelation("u2", "ROLE_STUDENT")));
+
+        Page<UserDTO> page = userService.listUsers(1, 10, false);
+
+        assertEquals(Set.of("ROLE_ADMIN"), page.getContent().get(0).getRoles());
+        assertEquals(Set.of(), page.getContent().get(2).getRoles());
+        assertNull(page.getContent().get(0).getProfile());
+        verify(userRoleRepository, times(1)).findByIdUserIdIn(any());
+        verify(userRoleRepository, never()).findByIdUserId(anyString());
+    }
+
+    @Test
+    void listUsersByCursorShouldSeekFromLastRowOfPreviousPage() {
+        User alice = user("u3", "alice");
+        User bob = user("u2", "bob");
+        User carol = user("u1", "carol");
+        when(userRepository.findFirstByCreatedAtDesc(any(Pageable.class))).thenReturn(List.of(alice, bob, carol));
+        when(userRepository.findAfterByCreatedAtDesc(any(), any(), any(Pageable.class))).thenReturn(List.of(carol));
+
+        CursorPageResult<UserDTO> first = userService.listUsersByCursor(null, 2, false, false);
+        CursorPageResult<UserDTO> second = userService.listUsersByCursor(first.getNextCursor(), 2, false, false);
+
+        assertEquals(2, first.getList().size());
+        assertTrue(first.isHasMore());
+        assertNull(first.getTotal());
+        verify(userRepository).findAfterByCreatedAtDesc(bob.getCreatedAt(), "u2", PageRequest.of(0, 3));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+        assertThrows(UserException.class, () -> userService.listUsersByCursor("not-a-cursor", 2, false, false));
+    }
+
+    @Test
+    void listUsersByCursorShouldRejectNonPositiveSizeAndCapLargeSize() {
+        when(userRepository.findFirstByCreatedAtDesc(any(Pageable.class))).thenReturn(List.of());
+
+        UserException e = assertThrows(UserException.class, () -> userService.listUsersByCursor(null, 0, false, false));
+        assertEquals(UserException.INVALID_PAGE_SIZE, e.getCode());
+        userService.listUsersByCursor(null, 10_000, false, false);
+
+        verify(userRepository).findFirstByCreatedAtDesc(PageRequest.of(0, SystemConstants.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void searchUsersShouldPageByUsernameWithoutCounting() {
+        User alice = user("u3", "alice");
+        User bob = user("u2", "bob");
+        User carol = user("u1", "carol");
+        when(userRepository.searchIdsByPrefix("a!%%", "", null, null, null, 3))
+                .thenReturn(List.of("u3", "u2", "u1"));
+        when(userRepository.findAllById(List.of("u3", "u2", "u1"))).thenReturn(List.of(carol, alice, bob));
+        when(userRepository.searchIdsByPrefix(eq("a!%%"), eq("bob"), any(), any(), any(), eq(3)))
+                .thenReturn(List.of());
+
+        CursorPageResult<UserDirectoryEntryDTO> first = userService.searchUsers(" a% ", null, null, null, null, null, 2);
+
+        assertEquals(List.of("alice", "bob"), first.getList().stream().map(UserDirectoryEntryDTO::getUsername).toList());
+        assertTrue(first.isHasMore());
+        assertNull(first.getTotal());
+        userService.searchUsers("a%", null, null, null, null, first.getNextCursor(), 2);
+        verify(userRepository).searchIdsByPrefix("a!%%", "bob", null, null, null, 3);
+        verify(userRepository, never()).count();
+    }
+
+    private static User user() {
+        return user("u1", "alice");
+    }
+
+    private static User user(String id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setPassword("hash");
+        user.setCreatedAt(new Date());
+        user.setUpdatedAt(new Date());
+        user.setIsDeleted(false);
+        return user;
+    }
+
+    private static LoginRequestDTO request(String username, String password, String role) {
+        LoginRequestDTO request = new LoginRequestDTO();
+        request.setUsername(username);
+        request.setPassword(password);
+        request.setRole(role);
+        return request;
+    }
+}
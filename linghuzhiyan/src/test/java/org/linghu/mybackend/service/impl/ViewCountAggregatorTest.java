@@ -0,0 +1,118 @@
+package org.linghu.mybackend.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.linghu.mybackend.domain.Discussion;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ViewCountAggregatorTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ViewCountAggregator aggregator = new ViewCountAggregator(mongoTemplate, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        aggregator.init();
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Discussion.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void flushShouldWriteOneIncrementPerDiscussion() {
+        aggregator.record("d1");
+        aggregator.record("d1");
+        aggregator.record("d2");
+
+        assertEquals(2, aggregator.pending("d1"));
+        assertEquals(3.0, meterRegistry.get("discussion.view_count.pending_views").gauge().value());
+
+        aggregator.flush();
+
+        verify(bulk, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulk).execute();
+        assertEquals(0, aggregator.pending("d1"));
+        assertEquals(3.0, meterRegistry.get("discussion.view_count.flushed").counter().count());
+    }
+
+    @Test
+    void flushShouldSkipWriteAndDropIdleDiscussions() {
+        aggregator.record("d1");
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(mongoTemplate, times(1)).bulkOps(eq(BulkMode.UNORDERED), eq(Discussion.class));
+        assertEquals(0.0, meterRegistry.get("discussion.view_count.pending_discussions").gauge().value());
+    }
+
+    @Test
+    void failedFlushShouldKeepDeltasForRetry() {
+        when(bulk.execute()).thenThrow(new RuntimeException("timeout"));
+        aggregator.record("d1");
+        aggregator.record("d1");
+
+        aggregator.flush();
+
+        assertEquals(2, aggregator.pending("d1"));
+        assertEquals(1.0, meterRegistry.get("discussion.view_count.failed").counter().count());
+    }
+
+    @Test
+    void partialFailureShouldRequeueOnlyFailedUpdates() {
+        aggregator.record("d1");
+        aggregator.record("d2");
+        aggregator.record("d2");
+        List<String> order = new ArrayList<>();
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            order.add(query.getQueryObject().getString("_id"));
+            return bulk;
+        });
+        // 第二个更新失败
+        BulkWriteError error = new BulkWriteError(50, "timeout", new BsonDocument(), 1);
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(error), null, new ServerAddress(), Set.of());
+        when(bulk.execute()).thenThrow(new BulkOperationException("partial", cause));
+
+        aggregator.flush();
+
+        String failedId = order.get(1);
+        String writtenId = order.get(0);
+        assertEquals("d1".equals(failedId) ? 1 : 2, aggregator.pending(failedId));
+        assertEquals(0, aggregator.pending(writtenId));
+        assertEquals(1.0, meterRegistry.get("discussion.view_count.failed").counter().count());
+    }
+
+    @Test
+    void readsShouldNotWriteUntilFlush() {
+        aggregator.record("d1");
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkMode.class), eq(Discussion.class));
+    }
+}
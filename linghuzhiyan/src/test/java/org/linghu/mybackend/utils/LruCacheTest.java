@@ -0,0 +1,55 @@
+package org.linghu.mybackend.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class LruCacheTest {
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws InterruptedException {
+        LruCache<String, Integer> cache = new LruCache<>(10, 20);
+        cache.put("a", 1);
+        Thread.sleep(40);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        cache.computeIfAbsent("a", key -> 1);
+        cache.computeIfAbsent("a", key -> 2);
+
+        assertEquals(1, cache.get("a"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void shouldRemoveMatchingEntries() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.removeIf((key, value) -> value == 2);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get("b"));
+    }
+}
@@ -0,0 +1,38 @@
+package org.linghu.mybackend.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PrefixTrieTest {
+
+    @Test
+    void shouldSuggestCaseInsensitivelyInLexicographicOrder() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("zhangsan");
+        trie.add("ZhangWei");
+        trie.add("zhao");
+        trie.add("li");
+
+        assertEquals(List.of("zhangsan", "ZhangWei"), trie.startsWith("ZHANG", 10));
+        assertEquals(List.of("zhangsan"), trie.startsWith("zh", 1));
+        assertEquals(List.of(), trie.startsWith("wang", 10));
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void shouldRemoveWordsAndKeepSiblings() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("stu");
+        trie.add("student01");
+        trie.add("student02");
+
+        trie.remove("student01");
+        trie.remove("missing");
+
+        assertEquals(List.of("stu", "student02"), trie.startsWith("stu", 10));
+        assertEquals(2, trie.size());
+    }
+}
@@ -0,0 +1,61 @@
+package org.linghu.mybackend.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    void shouldCountOnlyEventsInsideWindow() {
+        SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(1000, 60);
+        long now = 1_000_000_000L;
+        counter.increment("u1", now - 30_000);
+        counter.increment("u1", now - 5_000);
+        counter.increment("u1", now);
+
+        assertEquals(3, counter.count("u1", now, 60_000));
+        assertEquals(2, counter.count("u1", now, 10_000));
+        assertEquals(0, counter.count("u2", now, 60_000));
+    }
+
+    @Test
+    void shouldReuseExpiredBuckets() {
+        SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(1000, 10);
+        long now = 1_000_000_000L;
+        counter.increment("ip", now);
+        counter.increment("ip", now + 10_000);
+
+        assertEquals(1, counter.count("ip", now + 10_000, 10_000));
+    }
+
+    @Test
+    void shouldEvictIdleKeys() {
+        SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(1000, 10);
+        long now = 1_000_000_000L;
+        counter.increment("old", now);
+        counter.increment("recent", now + 15_000);
+
+        counter.evictIdle(now + 15_000);
+
+        assertEquals(1, counter.size());
+        assertEquals(1, counter.count("recent", now + 15_000, 10_000));
+    }
+
+    @Test
+    void shouldDropNewKeysBeyondLimit() {
+        SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(1000, 10, 2);
+        long now = 1_000_000_000L;
+        assertTrue(counter.increment("a", now));
+        assertTrue(counter.increment("b", now));
+
+        assertFalse(counter.increment("c", now));
+        assertFalse(counter.canTrack("c"));
+        assertTrue(counter.increment("a", now));
+        assertEquals(2, counter.size());
+        assertEquals(2, counter.count("a", now, 10_000));
+        assertEquals(0, counter.count("c", now, 10_000));
+    }
+}
@@ -0,0 +1,41 @@
+package org.linghu.mybackend.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class SpaceSavingTopKTest {
+
+    @Test
+    void shouldKeepHeavyHitterAmongManyRareKeys() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(10);
+        for (int i = 0; i < 1000; i++) {
+            topK.add("10.0.0." + i);
+            if (i % 4 == 0) {
+                topK.add("attacker");
+            }
+        }
+
+        List<Map.Entry<String, Long>> top = topK.top();
+        assertEquals("attacker", top.get(0).getKey());
+        assertTrue(top.get(0).getValue() >= 250);
+    }
+
+    @Test
+    void countMinSketchShouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("ip-" + (i % 50));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(sketch.estimate("ip-" + i) >= 10);
+        }
+        sketch.clear();
+        assertEquals(0, sketch.estimate("ip-1"));
+    }
+}
@@ -0,0 +1,53 @@
+package org.linghu.mybackend.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class UserAgentClassifierTest {
+
+    private final UserAgentClassifier classifier = new UserAgentClassifier(16);
+
+    @Test
+    void shouldClassifyDesktopEdge() {
+        UserAgentInfo info = classifier.classify("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36 Edg/120.0.2210.91");
+
+        assertEquals("Desktop", info.device());
+        assertEquals("Windows", info.os());
+        assertEquals("Edge", info.browser());
+        assertEquals("120.0.2210.91", info.browserVersion());
+        assertEquals("Desktop/Windows 10/Edge 120", info.toDeviceType());
+    }
+
+    @Test
+    void shouldClassifyIphoneSafari() {
+        UserAgentInfo info = classifier.classify("Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) "
+                + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1");
+
+        assertEquals("Mobile", info.device());
+        assertEquals("iOS", info.os());
+        assertEquals("17.2", info.osVersion());
+        assertEquals("Safari", info.browser());
+        assertEquals("17.2", info.browserVersion());
+    }
+
+    @Test
+    void shouldClassifyAndroidTabletAndCacheResult() {
+        String userAgent = "Mozilla/5.0 (Linux; Android 13; SM-X700) AppleWebKit/537.36 "
+                + "(KHTML, like Gecko) Chrome/119.0.0.0 Safari/537.36";
+
+        UserAgentInfo info = classifier.classify(userAgent);
+
+        assertEquals("Tablet/Android 13/Chrome 119", info.toDeviceType());
+        assertSame(info, classifier.classify(userAgent));
+        assertEquals(1, classifier.getCache().getHitCount());
+    }
+
+    @Test
+    void shouldHandleMissingUserAgent() {
+        assertEquals("unknown", classifier.classify(null).toDeviceType());
+        assertEquals("Bot", classifier.classify("curl/8.4.0").device());
+    }
+}